@@ -0,0 +1,109 @@
+param(
+    [Parameter(Mandatory = $true)]
+    [ValidateSet("platform", "virtual")]
+    [string]$Mode,
+    [int]$Duration = 60,
+    [int]$Concurrency = 200,
+    [long]$UserId = 1,
+    [string]$ResultsFile = "virtual-threads-benchmark.csv"
+)
+
+# ===============================
+# Virtual vs platform thread comparison for POST /api/orders
+#
+# Requires PowerShell 7 (ForEach-Object -Parallel).
+# Run once per mode against the same data and load:
+#   1. Start order-service normally              -> .\benchmark-virtual-threads.ps1 -Mode platform
+#   2. Restart with SPRING_THREADS_VIRTUAL_ENABLED=true (both services)
+#                                                -> .\benchmark-virtual-threads.ps1 -Mode virtual
+# Rows are appended to the results CSV and both modes are compared at the end.
+# To reproduce a user-service slowdown, pause it (docker pause user-service)
+# for part of each run. Both runs must use the same pause.
+# ===============================
+$ErrorActionPreference = "Stop"
+
+$OrderServiceUrl = "http://localhost:8082"
+
+Write-Host "========================================" -ForegroundColor Cyan
+Write-Host "THREAD MODE BENCHMARK ($Mode)" -ForegroundColor Cyan
+Write-Host "========================================" -ForegroundColor Cyan
+Write-Host "Duration: $Duration seconds" -ForegroundColor White
+Write-Host "Concurrency: $Concurrency" -ForegroundColor White
+Write-Host ""
+
+try {
+    Invoke-WebRequest "$OrderServiceUrl/actuator/health" -TimeoutSec 5 | Out-Null
+    Write-Host "✓ Order Service is available" -ForegroundColor Green
+} catch {
+    Write-Host "✗ Order Service is not available" -ForegroundColor Red
+    exit 1
+}
+
+$body = @{
+    userId          = $UserId
+    productName     = "Benchmark Item"
+    quantity        = 1
+    price           = 9.99
+    shippingAddress = "Benchmark"
+} | ConvertTo-Json
+
+$endTime = (Get-Date).AddSeconds($Duration)
+$started = Get-Date
+
+# Each worker loops until the deadline and returns one latency sample per request
+$samples = 1..$Concurrency | ForEach-Object -ThrottleLimit $Concurrency -Parallel {
+    $url = "$($using:OrderServiceUrl)/api/orders"
+    $deadline = $using:endTime
+    $payload = $using:body
+    while ((Get-Date) -lt $deadline) {
+        $watch = [System.Diagnostics.Stopwatch]::StartNew()
+        $ok = $true
+        try {
+            Invoke-RestMethod -Uri $url -Method POST -Body $payload -ContentType "application/json" -TimeoutSec 30 | Out-Null
+        } catch {
+            $ok = $false
+        }
+        $watch.Stop()
+        [pscustomobject]@{ Millis = $watch.Elapsed.TotalMilliseconds; Ok = $ok }
+    }
+}
+
+$elapsed = ((Get-Date) - $started).TotalSeconds
+$sorted = $samples | Where-Object { $_.Ok } | ForEach-Object { $_.Millis } | Sort-Object
+$errors = ($samples | Where-Object { -not $_.Ok }).Count
+
+function Get-Percentile([double[]]$values, [double]$percentile) {
+    if ($values.Count -eq 0) { return 0 }
+    $index = [math]::Ceiling($percentile / 100 * $values.Count) - 1
+    return [math]::Round($values[[math]::Max(0, $index)], 1)
+}
+
+$result = [pscustomobject]@{
+    Timestamp   = (Get-Date).ToString("s")
+    Mode        = $Mode
+    Concurrency = $Concurrency
+    Requests    = $sorted.Count
+    Errors      = $errors
+    Throughput  = [math]::Round($sorted.Count / $elapsed, 1)
+    P50Ms       = Get-Percentile $sorted 50
+    P99Ms       = Get-Percentile $sorted 99
+}
+
+$result | Export-Csv -Path $ResultsFile -Append -NoTypeInformation
+$result | Format-List
+
+# ===============================
+# Compare the latest run of each mode at this concurrency
+# ===============================
+$history = Import-Csv $ResultsFile | Where-Object { $_.Concurrency -eq "$Concurrency" }
+$platform = $history | Where-Object { $_.Mode -eq "platform" } | Select-Object -Last 1
+$virtual = $history | Where-Object { $_.Mode -eq "virtual" } | Select-Object -Last 1
+
+if ($platform -and $virtual) {
+    Write-Host "========================================" -ForegroundColor Cyan
+    Write-Host "COMPARISON (concurrency $Concurrency)" -ForegroundColor Cyan
+    Write-Host "========================================" -ForegroundColor Cyan
+    Write-Host ("Throughput req/s : platform {0,8}   virtual {1,8}" -f $platform.Throughput, $virtual.Throughput) -ForegroundColor White
+    Write-Host ("p99 latency ms   : platform {0,8}   virtual {1,8}" -f $platform.P99Ms, $virtual.P99Ms) -ForegroundColor White
+    Write-Host ("Errors           : platform {0,8}   virtual {1,8}" -f $platform.Errors, $virtual.Errors) -ForegroundColor White
+}
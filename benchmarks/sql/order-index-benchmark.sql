@@ -0,0 +1,60 @@
+-- ===============================
+-- Order query latency with and without the V2 indexes
+--
+-- Runs in a scratch schema and leaves the service tables untouched:
+--   psql -h localhost -U postgres -d ordersdb -v rows=1000000  -f benchmarks/sql/order-index-benchmark.sql
+--   psql -h localhost -U postgres -d ordersdb -v rows=10000000 -f benchmarks/sql/order-index-benchmark.sql
+-- Each query runs as EXPLAIN (ANALYZE, BUFFERS) twice, first on the bare
+-- table and then after the indexes are created. Compare the plan shape
+-- (Seq Scan vs Index / Index Only Scan) and the reported Execution Time.
+-- ===============================
+\set ON_ERROR_STOP on
+\if :{?rows}
+\else
+\set rows 1000000
+\endif
+\echo 'Generating' :rows 'orders'
+
+DROP SCHEMA IF EXISTS order_bench CASCADE;
+CREATE SCHEMA order_bench;
+SET search_path = order_bench;
+
+CREATE TABLE orders (LIKE public.orders INCLUDING DEFAULTS INCLUDING CONSTRAINTS);
+
+-- 10k users, statuses skewed toward DELIVERED, creation times over two years
+INSERT INTO orders (id, user_id, product_name, quantity, price, total_amount, status, created_at, updated_at, shipping_address)
+SELECT g,
+       1 + (g % 10000),
+       'Product ' || (g % 500),
+       q,
+       p,
+       p * q,
+       (ARRAY['DELIVERED', 'DELIVERED', 'DELIVERED', 'SHIPPED', 'PROCESSING', 'PENDING', 'CANCELLED'])[1 + (g % 7)],
+       ts,
+       ts,
+       'Benchmark'
+FROM generate_series(1, :rows) AS g,
+     LATERAL (SELECT 1 + (g % 5) AS q,
+                     round((5 + (g % 9500) / 10.0)::numeric, 2) AS p,
+                     now() - make_interval(secs => (g % 63072000)) AS ts) AS v;
+ALTER TABLE orders ADD PRIMARY KEY (id);
+VACUUM ANALYZE orders;
+
+\set user_id 4242
+\set status SHIPPED
+
+\echo '=============================== before indexes'
+\ir order-index-queries.sql
+
+CREATE INDEX idx_orders_user_id_created_at ON orders (user_id, created_at DESC);
+CREATE INDEX idx_orders_status_created_at ON orders (status, created_at DESC);
+CREATE INDEX idx_orders_status_total_amount ON orders (status) INCLUDE (total_amount);
+CREATE INDEX idx_orders_created_at_id ON orders (created_at DESC, id DESC);
+-- Index-only scans need an up-to-date visibility map
+VACUUM ANALYZE orders;
+
+\echo '=============================== after indexes'
+\ir order-index-queries.sql
+
+RESET search_path;
+DROP SCHEMA order_bench CASCADE;
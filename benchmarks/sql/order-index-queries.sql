@@ -0,0 +1,19 @@
+-- The SQL Hibernate issues for OrderRepository, run by order-index-benchmark.sql
+
+\echo '--- findByUserId'
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM orders WHERE user_id = :user_id;
+
+\echo '--- findByStatus'
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM orders WHERE status = :'status';
+
+\echo '--- countByStatus'
+EXPLAIN (ANALYZE, BUFFERS) SELECT count(id) FROM orders WHERE status = :'status';
+
+\echo '--- sumTotalAmountByStatus'
+EXPLAIN (ANALYZE, BUFFERS) SELECT sum(total_amount) FROM orders WHERE status = :'status';
+
+\echo '--- aggregateByStatus'
+EXPLAIN (ANALYZE, BUFFERS) SELECT status, count(id), sum(total_amount) FROM orders GROUP BY status;
+
+\echo '--- findFirstPage (size 50)'
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM orders ORDER BY created_at DESC, id DESC LIMIT 51;
@@ -0,0 +1,51 @@
+package com.observability.benchmarks;
+
+import com.observability.orderservice.dto.OrderDTO;
+import com.observability.orderservice.model.Order;
+import com.observability.orderservice.service.OrderService;
+import com.observability.userservice.dto.UserDTO;
+import com.observability.userservice.model.User;
+import com.observability.userservice.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping done for every row the services return.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConvertToDtoBenchmark {
+
+    private Order order;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        order = Fixtures.order(42);
+        user = Fixtures.user(42);
+    }
+
+    @Benchmark
+    public OrderDTO orderConvertToDTO() {
+        return OrderService.convertToDTO(order);
+    }
+
+    @Benchmark
+    public UserDTO userConvertToDTO() {
+        return UserService.convertToDTO(user);
+    }
+}
@@ -0,0 +1,78 @@
+package com.observability.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.observability.orderservice.model.Order;
+import com.observability.userservice.model.User;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic sample data shared by the benchmarks.
+ */
+final class Fixtures {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private Fixtures() {
+    }
+
+    /**
+     * An ObjectMapper configured like the one Spring Boot gives both services.
+     */
+    static ObjectMapper objectMapper() {
+        return JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    static Order order(long id) {
+        Order order = new Order();
+        order.setId(id);
+        order.setUserId(id % 5000 + 1);
+        order.setProductName("Product " + (id % 250));
+        order.setQuantity((int) (id % 7) + 1);
+        order.setPrice(BigDecimal.valueOf(1999 + id % 10000, 2));
+        order.setTotalAmount(order.getPrice().multiply(BigDecimal.valueOf(order.getQuantity())));
+        order.setStatus(Order.OrderStatus.values()[(int) (id % Order.OrderStatus.values().length)]);
+        order.setCreatedAt(BASE_TIME.plusSeconds(id));
+        order.setUpdatedAt(BASE_TIME.plusSeconds(id + 60));
+        order.setShippingAddress(id + " Benchmark Street, Springfield");
+        return order;
+    }
+
+    static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user" + id);
+        user.setEmail("user" + id + "@example.com");
+        user.setFullName("Benchmark User " + id);
+        user.setCreatedAt(BASE_TIME.plusSeconds(id));
+        user.setLastLoginAt(BASE_TIME.plusSeconds(id + 3600));
+        user.setActive(id % 10 != 0);
+        user.setLoginCount((int) (id % 100));
+        return user;
+    }
+
+    static List<Order> orders(int count) {
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            orders.add(order(i));
+        }
+        return orders;
+    }
+
+    static List<User> users(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            users.add(user(i));
+        }
+        return users;
+    }
+}
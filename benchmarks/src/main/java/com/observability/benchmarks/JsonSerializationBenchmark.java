@@ -0,0 +1,76 @@
+package com.observability.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.observability.orderservice.dto.OrderDTO;
+import com.observability.orderservice.service.OrderService;
+import com.observability.userservice.dto.UserDTO;
+import com.observability.userservice.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Jackson cost of the list endpoints (GET /api/orders, GET /api/users) per list size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    private static final TypeReference<List<OrderDTO>> ORDER_LIST = new TypeReference<>() {};
+    private static final TypeReference<List<UserDTO>> USER_LIST = new TypeReference<>() {};
+
+    @Param({ "1000", "10000", "100000" })
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<OrderDTO> orders;
+    private List<UserDTO> users;
+    private byte[] ordersJson;
+    private byte[] usersJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = Fixtures.objectMapper();
+        orders = Fixtures.orders(size).stream().map(OrderService::convertToDTO).collect(Collectors.toList());
+        users = Fixtures.users(size).stream().map(UserService::convertToDTO).collect(Collectors.toList());
+        ordersJson = objectMapper.writeValueAsBytes(orders);
+        usersJson = objectMapper.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public byte[] serializeOrders() throws Exception {
+        return objectMapper.writeValueAsBytes(orders);
+    }
+
+    @Benchmark
+    public List<OrderDTO> deserializeOrders() throws Exception {
+        return objectMapper.readValue(ordersJson, ORDER_LIST);
+    }
+
+    @Benchmark
+    public byte[] serializeUsers() throws Exception {
+        return objectMapper.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public List<UserDTO> deserializeUsers() throws Exception {
+        return objectMapper.readValue(usersJson, USER_LIST);
+    }
+}
@@ -0,0 +1,47 @@
+package com.observability.benchmarks;
+
+import com.observability.orderservice.service.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The price * quantity computation used by createOrder, createOrders and updateOrder.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OrderTotalBenchmark {
+
+    @Param({ "19.99", "1234567.89" })
+    public String price;
+
+    @Param({ "1", "250" })
+    public int quantity;
+
+    private BigDecimal priceValue;
+
+    @Setup
+    public void setUp() {
+        priceValue = new BigDecimal(price);
+    }
+
+    @Benchmark
+    public BigDecimal calculateTotal() {
+        return OrderService.calculateTotal(priceValue, quantity);
+    }
+}
@@ -0,0 +1,61 @@
+package com.observability.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.observability.orderservice.client.UserServiceClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response decoding in UserServiceClient. The single lookup goes through
+ * bodyToMono(Map.class) and parseExists. The bulk lookup decodes a Map of
+ * id to boolean for a full coalesced batch.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class UserServiceClientParsingBenchmark {
+
+    private static final TypeReference<Map<Long, Boolean>> BULK_EXISTS = new TypeReference<>() {};
+    private static final int BULK_BATCH_SIZE = 64;
+
+    private ObjectMapper objectMapper;
+    private byte[] singleResponse;
+    private byte[] bulkResponse;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = Fixtures.objectMapper();
+        singleResponse = objectMapper.writeValueAsBytes(Map.of("exists", true));
+        Map<Long, Boolean> bulk = new LinkedHashMap<>();
+        for (long id = 1; id <= BULK_BATCH_SIZE; id++) {
+            bulk.put(id, id % 3 != 0);
+        }
+        bulkResponse = objectMapper.writeValueAsBytes(bulk);
+    }
+
+    @Benchmark
+    public boolean parseSingleExistsAsMap() throws Exception {
+        return UserServiceClient.parseExists(objectMapper.readValue(singleResponse, Map.class));
+    }
+
+    @Benchmark
+    public Map<Long, Boolean> parseBulkExists() throws Exception {
+        return objectMapper.readValue(bulkResponse, BULK_EXISTS);
+    }
+}
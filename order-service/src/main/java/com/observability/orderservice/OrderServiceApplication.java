@@ -4,16 +4,24 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Map;
+
 @SpringBootApplication
+@EnableScheduling
 public class OrderServiceApplication {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderServiceApplication.class);
 
     public static void main(String[] args) {
-        SpringApplication.run(OrderServiceApplication.class, args);
+        SpringApplication application = new SpringApplication(OrderServiceApplication.class);
+        // Without this, the request-bound EntityManager holds its pooled connection from the
+        // first read until the response is written, including across calls to user-service
+        application.setDefaultProperties(Map.of("spring.jpa.open-in-view", "false"));
+        application.run(args);
         logger.info("Order Service started successfully!");
     }
 
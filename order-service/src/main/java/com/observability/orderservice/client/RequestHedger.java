@@ -0,0 +1,158 @@
+package com.observability.orderservice.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Sends a second copy of a slow idempotent call and takes whichever answer arrives first.
+ * The hedge goes out once the first call has been pending longer than a percentile of
+ * recent latency. A token budget caps hedges at a fraction of all calls, so a slow
+ * dependency sees at most that much extra load. No hedges are sent until enough
+ * latency samples have been collected.
+ */
+class RequestHedger {
+
+    private static final int WINDOW_SIZE = 1024;
+    private static final int MIN_SAMPLES = 100;
+    private static final long RECOMPUTE_INTERVAL_NANOS = Duration.ofSeconds(1).toNanos();
+
+    private final double percentile;
+    private final long minDelayNanos;
+    private final double budgetRatio;
+    private final double budgetBurst;
+
+    // Latest successful latencies, overwritten round-robin
+    private final long[] samples = new long[WINDOW_SIZE];
+    private final AtomicInteger sampleCount = new AtomicInteger();
+    private final AtomicBoolean recomputing = new AtomicBoolean();
+    private volatile long delayNanos = -1;
+    private volatile long delayComputedAt;
+    private double budgetTokens;
+
+    private final Counter callsCounter;
+    private final Counter sentCounter;
+    private final Counter wonCounter;
+    private final Counter overBudgetCounter;
+
+    RequestHedger(String operation, double percentile, Duration minDelay, double budgetRatio, double budgetBurst,
+                  MeterRegistry meterRegistry) {
+        this.percentile = percentile;
+        this.minDelayNanos = minDelay.toNanos();
+        this.budgetRatio = budgetRatio;
+        this.budgetBurst = budgetBurst;
+        this.budgetTokens = budgetBurst;
+        this.callsCounter = Counter.builder("user.client.hedge.calls")
+                .description("Calls eligible for hedging")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("user.client.hedge.sent")
+                .description("Hedge calls sent because the first call was slow")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        this.wonCounter = Counter.builder("user.client.hedge.won")
+                .description("Hedge calls that answered before the first call")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        this.overBudgetCounter = Counter.builder("user.client.hedge.over.budget")
+                .description("Hedges skipped because the hedge budget was spent")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        Gauge.builder("user.client.hedge.delay", this, hedger -> hedger.delayNanos < 0
+                        ? Double.NaN : hedger.delayNanos / 1_000_000.0)
+                .description("Time a call waits before it is hedged")
+                .tag("operation", operation)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Wraps the call. The supplier is invoked once per attempt and must return a cold,
+     * idempotent Mono. If every attempt fails, the first error is propagated.
+     */
+    <T> Mono<T> hedge(Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            callsCounter.increment();
+            depositBudget();
+            long delay = currentDelay();
+            if (delay < 0) {
+                return timed(call);
+            }
+            AtomicReference<Throwable> firstError = new AtomicReference<>();
+            Sinks.One<Boolean> primaryFailed = Sinks.one();
+            Mono<T> primary = timed(call)
+                    .doOnError(e -> {
+                        firstError.compareAndSet(null, e);
+                        primaryFailed.tryEmitValue(true);
+                    });
+            // A primary that fails before the hedge delay fails the whole call instead of
+            // turning the hedge into a retry
+            Mono<T> hedged = Mono.delay(Duration.ofNanos(delay))
+                    .takeUntilOther(primaryFailed.asMono())
+                    .flatMap(tick -> {
+                        if (!withdrawBudget()) {
+                            overBudgetCounter.increment();
+                            return Mono.<T>empty();
+                        }
+                        sentCounter.increment();
+                        return timed(call)
+                                .doOnNext(value -> wonCounter.increment())
+                                .doOnError(e -> firstError.compareAndSet(null, e));
+                    });
+            return Mono.firstWithValue(primary, hedged)
+                    .onErrorMap(e -> firstError.get() != null ? firstError.get() : e);
+        });
+    }
+
+    private <T> Mono<T> timed(Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call.get().doOnNext(value -> record(System.nanoTime() - start));
+        });
+    }
+
+    private void record(long latencyNanos) {
+        int index = sampleCount.getAndIncrement();
+        samples[Math.floorMod(index, WINDOW_SIZE)] = latencyNanos;
+    }
+
+    private long currentDelay() {
+        long now = System.nanoTime();
+        if (now - delayComputedAt > RECOMPUTE_INTERVAL_NANOS && recomputing.compareAndSet(false, true)) {
+            try {
+                int count = Math.min(sampleCount.get(), WINDOW_SIZE);
+                if (count >= MIN_SAMPLES) {
+                    long[] sorted = Arrays.copyOf(samples, count);
+                    Arrays.sort(sorted);
+                    int rank = (int) Math.ceil(percentile * count) - 1;
+                    delayNanos = Math.max(minDelayNanos, sorted[Math.max(0, rank)]);
+                }
+                delayComputedAt = now;
+            } finally {
+                recomputing.set(false);
+            }
+        }
+        return delayNanos;
+    }
+
+    private synchronized void depositBudget() {
+        budgetTokens = Math.min(budgetBurst, budgetTokens + budgetRatio);
+    }
+
+    private synchronized boolean withdrawBudget() {
+        if (budgetTokens < 1) {
+            return false;
+        }
+        budgetTokens -= 1;
+        return true;
+    }
+}
@@ -0,0 +1,115 @@
+package com.observability.orderservice.client;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Gathers concurrent user-existence lookups and resolves them with one bulk call.
+ * A batch is sent when {@code maxBatchSize} lookups are queued or when the oldest
+ * queued lookup has waited {@code window}, whichever comes first.
+ */
+class UserExistsCoalescer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserExistsCoalescer.class);
+
+    private final Function<Set<Long>, Mono<Map<Long, Boolean>>> bulkLookup;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler;
+    private final DistributionSummary batchSizeSummary;
+    private final Timer waitTimer;
+
+    UserExistsCoalescer(Function<Set<Long>, Mono<Map<Long, Boolean>>> bulkLookup, Duration window,
+                        int maxBatchSize, MeterRegistry meterRegistry) {
+        this.bulkLookup = bulkLookup;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-exists-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.batchSizeSummary = DistributionSummary.builder("user.client.exists.batch.size")
+                .description("Distinct user ids resolved per bulk existence call")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("user.client.exists.batch.wait")
+                .description("Time a user-existence lookup waited before its batch was sent")
+                .register(meterRegistry);
+    }
+
+    CompletableFuture<Boolean> submit(Long userId) {
+        Pending pending = new Pending(userId, System.nanoTime(), new CompletableFuture<>());
+        queue.add(pending);
+        if (queued.incrementAndGet() >= maxBatchSize) {
+            scheduler.execute(this::flush);
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::flush, windowNanos, TimeUnit.NANOSECONDS);
+        }
+        return pending.result();
+    }
+
+    // Only ever runs on the scheduler thread
+    private void flush() {
+        flushScheduled.set(false);
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        Pending next;
+        while ((next = queue.poll()) != null) {
+            queued.decrementAndGet();
+            batch.add(next);
+            if (batch.size() == maxBatchSize) {
+                dispatch(batch);
+                batch = new ArrayList<>(maxBatchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    private void dispatch(List<Pending> batch) {
+        long now = System.nanoTime();
+        Set<Long> userIds = new LinkedHashSet<>();
+        for (Pending pending : batch) {
+            userIds.add(pending.userId());
+            waitTimer.record(now - pending.enqueuedAt(), TimeUnit.NANOSECONDS);
+        }
+        batchSizeSummary.record(userIds.size());
+        logger.debug("Resolving {} user existence lookups ({} distinct ids) in one call", batch.size(), userIds.size());
+
+        bulkLookup.apply(userIds).subscribe(
+                result -> batch.forEach(pending ->
+                        pending.result().complete(Boolean.TRUE.equals(result.get(pending.userId())))),
+                error -> batch.forEach(pending -> pending.result().completeExceptionally(error)),
+                () -> batch.forEach(pending -> pending.result().complete(false)));
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdown();
+    }
+
+    private record Pending(Long userId, long enqueuedAt, CompletableFuture<Boolean> result) {
+    }
+}
@@ -1,21 +1,34 @@
 package com.observability.orderservice.client;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
 import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryRegistry;
 import io.github.resilience4j.reactor.retry.RetryOperator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Supplier;
 
 @Component
@@ -24,19 +37,35 @@ public class UserServiceClient {
     private static final Logger logger = LoggerFactory.getLogger(UserServiceClient.class);
     private static final String CIRCUIT_BREAKER_NAME = "userService";
     private static final String RETRY_NAME = "userService";
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(5);
+    private static final ParameterizedTypeReference<Map<Long, Boolean>> BULK_EXISTS_RESPONSE =
+            new ParameterizedTypeReference<>() {};
 
     private final WebClient webClient;
     private final CircuitBreaker circuitBreaker;
     private final Retry retry;
+    private final UserExistsCoalescer coalescer;
+    private final Cache<Long, Boolean> existsCache;
+    private final RequestHedger existsHedger;
+    private final RequestHedger bulkExistsHedger;
 
     public UserServiceClient(
-            @Value("${user.service.url}") String userServiceUrl,
+            WebClient userServiceWebClient,
+            @Value("${user.service.exists.coalescing.enabled:true}") boolean coalescingEnabled,
+            @Value("${user.service.exists.coalescing.window:2ms}") Duration coalescingWindow,
+            @Value("${user.service.exists.coalescing.max-batch-size:64}") int coalescingMaxBatchSize,
+            @Value("${user.service.exists.cache.maximum-size:10000}") long cacheMaximumSize,
+            @Value("${user.service.exists.cache.positive-ttl:60s}") Duration cachePositiveTtl,
+            @Value("${user.service.exists.cache.negative-ttl:5s}") Duration cacheNegativeTtl,
+            @Value("${user.service.hedging.enabled:false}") boolean hedgingEnabled,
+            @Value("${user.service.hedging.percentile:0.95}") double hedgingPercentile,
+            @Value("${user.service.hedging.min-delay:5ms}") Duration hedgingMinDelay,
+            @Value("${user.service.hedging.budget-ratio:0.05}") double hedgingBudgetRatio,
+            @Value("${user.service.hedging.budget-burst:10}") double hedgingBudgetBurst,
             CircuitBreakerRegistry circuitBreakerRegistry,
-            RetryRegistry retryRegistry) {
-        logger.info("🔧 UserServiceClient initialized with Base URL: {}", userServiceUrl);
-        this.webClient = WebClient.builder()
-                .baseUrl(userServiceUrl)
-                .build();
+            RetryRegistry retryRegistry,
+            MeterRegistry meterRegistry) {
+        this.webClient = userServiceWebClient;
         this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(CIRCUIT_BREAKER_NAME);
         this.retry = retryRegistry.retry(RETRY_NAME);
         
@@ -47,61 +76,234 @@ public class UserServiceClient {
                             event.getStateTransition().getFromState(), 
                             event.getStateTransition().getToState());
                 });
-    }
 
+        this.coalescer = coalescingEnabled
+                ? new UserExistsCoalescer(this::bulkExists, coalescingWindow, coalescingMaxBatchSize, meterRegistry)
+                : null;
+        logger.info("User existence coalescing {} (window={}, maxBatchSize={})",
+                coalescingEnabled ? "enabled" : "disabled", coalescingWindow, coalescingMaxBatchSize);
 
-    @SuppressWarnings("unchecked")
-    public boolean userExists(Long userId) {
-        logger.info("Checking user existence for userId={} (GET /api/users/{}/exists)", userId, userId);
-        try {
-            Supplier<Boolean> supplier = () ->
-                    webClient.get()
-                            .uri("/api/users/{id}/exists", userId)
-                            .accept(MediaType.APPLICATION_JSON)
-                            .exchangeToMono(response -> {
-                                if (response.statusCode().is2xxSuccessful()) {
-                                    return response.bodyToMono(Map.class)
-                                            .map(body -> {
-                                                Object existsVal = body != null ? body.get("exists") : null;
-                                                boolean exists = Boolean.TRUE.equals(existsVal)
-                                                        || "true".equalsIgnoreCase(String.valueOf(existsVal));
-                                                logger.info("User {} exists: {} (from user-service)", userId, exists);
-                                                return exists;
-                                            });
-                                }
-                                logger.warn("User-service returned non-2xx for /api/users/{}/exists: {}", userId, response.statusCode());
-                                return Mono.just(false);
-                            })
-                            .timeout(Duration.ofSeconds(5))
-                            .block();
+        // Deleted users drop out once the positive TTL expires. New users show up once
+        // the shorter negative TTL expires.
+        this.existsCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfter(new ExistsExpiry(cachePositiveTtl, cacheNegativeTtl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, existsCache, "userExists");
 
-            Supplier<Boolean> retrySupplier = Retry.decorateSupplier(retry, supplier);
-            Supplier<Boolean> decoratedSupplier =
-                    CircuitBreaker.decorateSupplier(circuitBreaker, retrySupplier);
+        // Both existence calls are reads, so a duplicate is harmless. Single and bulk
+        // calls have different latency profiles and keep separate histories.
+        this.existsHedger = hedgingEnabled
+                ? new RequestHedger("exists", hedgingPercentile, hedgingMinDelay, hedgingBudgetRatio,
+                        hedgingBudgetBurst, meterRegistry)
+                : null;
+        this.bulkExistsHedger = hedgingEnabled
+                ? new RequestHedger("bulkExists", hedgingPercentile, hedgingMinDelay, hedgingBudgetRatio,
+                        hedgingBudgetBurst, meterRegistry)
+                : null;
+        logger.info("User existence hedging {} (percentile={}, budgetRatio={})",
+                hedgingEnabled ? "enabled" : "disabled", hedgingPercentile, hedgingBudgetRatio);
+    }
 
-            return Boolean.TRUE.equals(decoratedSupplier.get());
+    @PreDestroy
+    public void shutdown() {
+        if (coalescer != null) {
+            coalescer.close();
+        }
+    }
 
+
+    public boolean userExists(Long userId) {
+        Boolean cached = existsCache.getIfPresent(userId);
+        if (cached != null) {
+            logger.debug("User {} exists: {} (cached)", userId, cached);
+            return cached;
+        }
+        try {
+            boolean exists = fetchExists(userId);
+            existsCache.put(userId, exists);
+            return exists;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("❌ Interrupted while checking user existence [{}]", userId);
+            return false;
         } catch (Throwable e) {
+            // Failures are answered with false but never cached
             logger.error("❌ Error checking user existence [{}]: {}", userId, e.getMessage(), e);
             return false;
         }
     }
 
+    /**
+     * Resolves many ids at once: cached answers first, then one bulk call for the rest.
+     * Ids that cannot be verified because user-service fails are reported as missing,
+     * the same as in {@link #userExists(Long)}.
+     */
+    public Map<Long, Boolean> usersExist(Collection<Long> userIds) {
+        Map<Long, Boolean> result = new HashMap<>();
+        Set<Long> misses = new LinkedHashSet<>();
+        for (Long userId : userIds) {
+            Boolean cached = existsCache.getIfPresent(userId);
+            if (cached != null) {
+                result.put(userId, cached);
+            } else {
+                misses.add(userId);
+            }
+        }
+        if (misses.isEmpty()) {
+            return result;
+        }
 
+        logger.info("Checking existence of {} users (POST /api/users/exists)", misses.size());
+        try {
+            Map<Long, Boolean> fetched = bulkExists(misses).block();
+            for (Long userId : misses) {
+                boolean exists = fetched != null && Boolean.TRUE.equals(fetched.get(userId));
+                existsCache.put(userId, exists);
+                result.put(userId, exists);
+            }
+        } catch (Throwable e) {
+            logger.error("❌ Error checking existence of {} users: {}", misses.size(), e.getMessage(), e);
+            misses.forEach(userId -> result.put(userId, false));
+        }
+        return result;
+    }
+
+    private boolean fetchExists(Long userId) throws Throwable {
+        if (coalescer != null) {
+            logger.debug("Queueing user existence check for userId={} (POST /api/users/exists)", userId);
+            try {
+                return coalescer.submit(userId).get();
+            } catch (ExecutionException e) {
+                throw e.getCause();
+            }
+        }
+        return fetchExistsSingle(userId);
+    }
 
+    @SuppressWarnings("unchecked")
+    private boolean fetchExistsSingle(Long userId) {
+        logger.info("Checking user existence for userId={} (GET /api/users/{}/exists)", userId, userId);
+        Supplier<Mono<Boolean>> call = () ->
+                webClient.get()
+                        .uri("/api/users/{id}/exists", userId)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .exchangeToMono(response -> {
+                            if (response.statusCode().is2xxSuccessful()) {
+                                return response.bodyToMono(Map.class)
+                                        .map(body -> {
+                                            boolean exists = parseExists(body);
+                                            logger.info("User {} exists: {} (from user-service)", userId, exists);
+                                            return exists;
+                                        });
+                            }
+                            if (response.statusCode().value() == 404) {
+                                return Mono.just(false);
+                            }
+                            // Other failures must not be remembered as "user does not exist"
+                            logger.warn("User-service returned non-2xx for /api/users/{}/exists: {}", userId, response.statusCode());
+                            return response.createError();
+                        });
+        Supplier<Boolean> supplier = () -> hedged(existsHedger, call)
+                .timeout(REQUEST_TIMEOUT)
+                .block();
+
+        Supplier<Boolean> retrySupplier = Retry.decorateSupplier(retry, supplier);
+        Supplier<Boolean> decoratedSupplier =
+                CircuitBreaker.decorateSupplier(circuitBreaker, retrySupplier);
+
+        return Boolean.TRUE.equals(decoratedSupplier.get());
+    }
+
+    /**
+     * Non-blocking variant of {@link #userExists(Long)}, sharing its cache and, when
+     * enabled, its coalescing. Failures resolve to false and are not cached.
+     */
     public Mono<Boolean> userExistsAsync(Long userId) {
+        Boolean cached = existsCache.getIfPresent(userId);
+        if (cached != null) {
+            logger.debug("User {} exists: {} (cached)", userId, cached);
+            return Mono.just(cached);
+        }
         logger.debug("Checking if user exists (async): {}", userId);
 
-        return webClient.get()
-                .uri("/api/users/{id}/exists", userId)
-                .accept(MediaType.APPLICATION_JSON)
-                .retrieve()
-                .bodyToMono(Map.class)
-                .timeout(Duration.ofSeconds(5))
-                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
-                .transformDeferred(RetryOperator.of(retry))
-                .map(response -> Boolean.TRUE.equals(response.get("exists")))
+        Mono<Boolean> remote = coalescer != null
+                ? Mono.fromFuture(() -> coalescer.submit(userId))
+                : hedged(existsHedger, () -> webClient.get()
+                                .uri("/api/users/{id}/exists", userId)
+                                .accept(MediaType.APPLICATION_JSON)
+                                .retrieve()
+                                .bodyToMono(Map.class)
+                                .map(UserServiceClient::parseExists)
+                                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.just(false)))
+                        .timeout(REQUEST_TIMEOUT)
+                        .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                        .transformDeferred(RetryOperator.of(retry));
+
+        return remote
+                .doOnNext(exists -> existsCache.put(userId, exists))
                 .doOnError(err -> logger.error("Async error checking user {}: {}", userId, err.getMessage()))
                 .onErrorReturn(false);
     }
+
+    /**
+     * One POST /api/users/exists call for a whole batch, guarded by the same circuit
+     * breaker and retry as the single-id lookups.
+     */
+    private Mono<Map<Long, Boolean>> bulkExists(Set<Long> userIds) {
+        return hedged(bulkExistsHedger, () -> webClient.post()
+                        .uri("/api/users/exists")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .bodyValue(userIds)
+                        .retrieve()
+                        .bodyToMono(BULK_EXISTS_RESPONSE))
+                .timeout(REQUEST_TIMEOUT)
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(RetryOperator.of(retry));
+    }
+
+    /**
+     * One attempt of a call, hedged when hedging is enabled. Retry and the circuit breaker
+     * wrap the hedged attempt, so a hedge never counts as a retry.
+     */
+    private static <T> Mono<T> hedged(RequestHedger hedger, Supplier<Mono<T>> call) {
+        return hedger != null ? hedger.hedge(call) : Mono.defer(call);
+    }
+
+    /**
+     * Reads the "exists" flag from a GET /api/users/{id}/exists body, accepting
+     * either a JSON boolean or a string.
+     */
+    public static boolean parseExists(Map<?, ?> body) {
+        Object existsVal = body != null ? body.get("exists") : null;
+        return Boolean.TRUE.equals(existsVal) || "true".equalsIgnoreCase(String.valueOf(existsVal));
+    }
+
+    private static final class ExistsExpiry implements Expiry<Long, Boolean> {
+
+        private final long positiveTtlNanos;
+        private final long negativeTtlNanos;
+
+        ExistsExpiry(Duration positiveTtl, Duration negativeTtl) {
+            this.positiveTtlNanos = positiveTtl.toNanos();
+            this.negativeTtlNanos = negativeTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(Long userId, Boolean exists, long currentTime) {
+            return exists ? positiveTtlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Long userId, Boolean exists, long currentTime, long currentDuration) {
+            return exists ? positiveTtlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterRead(Long userId, Boolean exists, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
@@ -0,0 +1,32 @@
+package com.observability.orderservice.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Async request timeout for streamed responses such as the order export. The container
+ * default of 30 seconds would cut off any export larger than a few hundred thousand rows.
+ */
+@Configuration
+public class AsyncRequestConfig implements WebMvcConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncRequestConfig.class);
+
+    private final Duration requestTimeout;
+
+    public AsyncRequestConfig(@Value("${order.async.request-timeout:30m}") Duration requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        logger.info("Async request timeout: {}", requestTimeout);
+        configurer.setDefaultTimeout(requestTimeout.toMillis());
+    }
+}
@@ -0,0 +1,29 @@
+package com.observability.orderservice.config;
+
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+
+/**
+ * The schema is owned by the Flyway migrations in db/migration and Hibernate only
+ * validates it. Databases created earlier by Hibernate DDL auto have tables but no
+ * migration history. They are baselined at version 1, so V1 is skipped and only later
+ * migrations run.
+ * <p>
+ * Flyway's migration lock is taken as a session-level advisory lock rather than inside
+ * a transaction. A transaction held open by the lock connection would make the
+ * CREATE INDEX CONCURRENTLY in V2 wait on it forever.
+ */
+@Configuration
+public class FlywayConfig {
+
+    @Bean
+    public FlywayConfigurationCustomizer baselineExistingSchema() {
+        return configuration -> configuration
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .configuration(Map.of("flyway.postgresql.transactional.lock", "false"));
+    }
+}
@@ -0,0 +1,33 @@
+package com.observability.orderservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class ReactivePersistenceConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactivePersistenceConfig.class);
+
+    /**
+     * Runs the JDBC step of the reactive order path. It has one thread per pooled
+     * connection, so in-flight database work is bounded by the pool and not by the
+     * request threads. Work beyond the queue cap is rejected.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler orderDatabaseScheduler(DataSource dataSource,
+            @Value("${order.reactive.db-queue-capacity:10000}") int queueCapacity) {
+        int threads = dataSource instanceof HikariDataSource hikari
+                ? hikari.getMaximumPoolSize()
+                : Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE;
+        logger.info("Reactive order persistence scheduler: {} threads, queue capacity {}", threads, queueCapacity);
+        return Schedulers.newBoundedElastic(threads, queueCapacity, "order-db");
+    }
+}
@@ -0,0 +1,81 @@
+package com.observability.orderservice.config;
+
+import io.netty.channel.ChannelOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * HTTP client used for calls from order-service to user-service.
+ *
+ * The pool and client both publish Reactor Netty meters to the global Micrometer
+ * registry, which Spring Boot bridges to Prometheus. Acquisition time is in
+ * reactor.netty.connection.provider.pending.connections.time, and pool occupancy is
+ * in reactor.netty.connection.provider.*.connections. Time spent in user-service is
+ * in reactor.netty.http.client.response.time. Comparing the two shows whether
+ * latency comes from waiting for a connection or from the remote service.
+ */
+@Configuration
+public class UserServiceHttpClientConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserServiceHttpClientConfig.class);
+
+    @Bean(destroyMethod = "disposeLater")
+    public ConnectionProvider userServiceConnectionProvider(
+            @Value("${user.service.http.max-connections:100}") int maxConnections,
+            @Value("${user.service.http.pending-acquire-max-count:1000}") int pendingAcquireMaxCount,
+            @Value("${user.service.http.pending-acquire-timeout:2s}") Duration pendingAcquireTimeout,
+            @Value("${user.service.http.max-idle-time:30s}") Duration maxIdleTime,
+            @Value("${user.service.http.max-life-time:5m}") Duration maxLifeTime,
+            @Value("${user.service.http.evict-interval:30s}") Duration evictInterval) {
+        logger.info("User-service connection pool: maxConnections={}, pendingAcquireMaxCount={}, pendingAcquireTimeout={}",
+                maxConnections, pendingAcquireMaxCount, pendingAcquireTimeout);
+        return ConnectionProvider.builder("user-service")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(evictInterval)
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public WebClient userServiceWebClient(
+            ConnectionProvider userServiceConnectionProvider,
+            @Value("${user.service.url}") String userServiceUrl,
+            @Value("${user.service.http.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${user.service.http.response-timeout:5s}") Duration responseTimeout,
+            @Value("${user.service.http.h2c:false}") boolean h2c) {
+        logger.info("🔧 UserServiceClient initialized with Base URL: {} (h2c={})", userServiceUrl, h2c);
+
+        // Upgrade to HTTP/2 cleartext only when user-service runs with server.http2.enabled=true
+        HttpProtocol[] protocols = h2c
+                ? new HttpProtocol[] { HttpProtocol.H2C, HttpProtocol.HTTP11 }
+                : new HttpProtocol[] { HttpProtocol.HTTP11 };
+
+        HttpClient httpClient = HttpClient.create(userServiceConnectionProvider)
+                .protocol(protocols)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .keepAlive(true)
+                .responseTimeout(responseTimeout)
+                // Collapse ids so the uri tag keeps a bounded cardinality
+                .metrics(true, uri -> uri.replaceAll("/\\d+", "/{id}"));
+
+        return WebClient.builder()
+                .baseUrl(userServiceUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
@@ -1,17 +1,34 @@
 package com.observability.orderservice.controller;
 
+import com.observability.orderservice.dto.BatchOrderResultDTO;
 import com.observability.orderservice.dto.OrderDTO;
+import com.observability.orderservice.dto.OrderFilter;
+import com.observability.orderservice.dto.OrderPageDTO;
+import com.observability.orderservice.dto.RevenueBucketDTO;
+import com.observability.orderservice.dto.RevenueGranularity;
 import com.observability.orderservice.model.Order;
+import com.observability.orderservice.service.OrderExporter;
+import com.observability.orderservice.service.OrderLookup;
+import com.observability.orderservice.service.OrderRevenueRollups;
 import com.observability.orderservice.service.OrderService;
+import com.observability.orderservice.service.OrderStatsSnapshot;
 import io.micrometer.tracing.Span;
 import io.micrometer.tracing.Tracer;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -25,11 +42,18 @@ public class OrderController {
     private static final Logger logger = LoggerFactory.getLogger(OrderController.class);
     
     private final OrderService orderService;
+    private final OrderExporter orderExporter;
+    private final OrderRevenueRollups revenueRollups;
+    private final OrderLookup orderLookup;
     private final Tracer tracer;
     
 
-    public OrderController(OrderService orderService, Tracer tracer) {
+    public OrderController(OrderService orderService, OrderExporter orderExporter,
+            OrderRevenueRollups revenueRollups, OrderLookup orderLookup, Tracer tracer) {
         this.orderService = orderService;
+        this.orderExporter = orderExporter;
+        this.revenueRollups = revenueRollups;
+        this.orderLookup = orderLookup;
         this.tracer = tracer;
     }
     
@@ -61,23 +85,158 @@ public class OrderController {
         }
     }
     
-    @GetMapping
-    public ResponseEntity<List<OrderDTO>> getAllOrders() {
-        Span span = tracer.nextSpan().name("getAllOrders").start();
+    @PostMapping("/batch")
+    public ResponseEntity<?> createOrders(@RequestBody List<OrderDTO> orderDTOs) {
+        Span span = tracer.nextSpan().name("createOrders").start();
         try {
-            logger.info("GET /api/orders - Fetching all orders");
-            List<OrderDTO> orders = orderService.getAllOrders();
-            span.tag("orders.count", String.valueOf(orders.size()));
-            return ResponseEntity.ok(orders);
+            logger.info("POST /api/orders/batch - Creating {} orders", orderDTOs.size());
+            span.tag("orders.batchSize", String.valueOf(orderDTOs.size()));
+
+            if (orderDTOs.isEmpty() || orderDTOs.size() > OrderService.MAX_BATCH_SIZE) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", "Batch must contain between 1 and " + OrderService.MAX_BATCH_SIZE + " orders"));
+            }
+
+            BatchOrderResultDTO result = orderService.createOrders(orderDTOs);
+            span.tag("orders.created", String.valueOf(result.getCreated()));
+            span.tag("orders.rejected", String.valueOf(result.getRejected()));
+
+            HttpStatus status = result.getRejected() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+            return ResponseEntity.status(status).body(result);
         } catch (Exception e) {
-            logger.error("Unexpected error fetching orders", e);
+            logger.error("Unexpected error creating order batch", e);
             span.error(e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(List.of());
+                    .body(Map.of("error", "Failed to create orders"));
         } finally {
             span.end();
         }
     }
+
+    /**
+     * Keyset pages of orders, newest first. Without a cursor the first page is returned,
+     * and without a size the default page size applies, so no request loads the whole
+     * table. /api/orders/page is kept as an alias.
+     */
+    @GetMapping({"", "/page"})
+    public ResponseEntity<?> getOrders(@RequestParam(value = "cursor", required = false) String cursor,
+                                       @RequestParam(value = "size", required = false) Integer size,
+                                       WebRequest webRequest) {
+        Span span = tracer.nextSpan().name("getOrders").start();
+        try {
+            logger.info("GET /api/orders - Fetching orders page (cursor={}, size={})", cursor, size);
+            
+            // Answer 304 before touching the orders table when nothing has changed. The
+            // version covers every page, since an ETag is scoped to its full URL.
+            String etag = orderService.getOrdersETag();
+            if (webRequest.checkNotModified(etag)) {
+                span.tag("http.notModified", "true");
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            
+            OrderPageDTO page = orderService.getOrdersPage(cursor, size);
+            span.tag("orders.count", String.valueOf(page.getSize()));
+            span.tag("orders.hasMore", String.valueOf(page.isHasMore()));
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(page);
+        } catch (IllegalArgumentException e) {
+            logger.error("Error fetching orders page: {}", e.getMessage());
+            span.error(e);
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Unexpected error fetching orders page", e);
+            span.error(e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to fetch orders"));
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Streams every matching order as NDJSON (default) or CSV, straight from a database
+     * cursor. Suitable for full nightly pulls that would not fit in one JSON array.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<?> exportOrders(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "userId", required = false) Long userId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        Span span = tracer.nextSpan().name("exportOrders").start();
+        OrderExporter.Format exportFormat;
+        OrderFilter filter;
+        try {
+            logger.info("GET /api/orders/export - Exporting orders (format={}, status={}, userId={})", format, status, userId);
+            exportFormat = OrderExporter.Format.valueOf(format.toUpperCase());
+            Order.OrderStatus orderStatus = status != null ? Order.OrderStatus.valueOf(status.toUpperCase()) : null;
+            filter = new OrderFilter(orderStatus, userId, from, to);
+            span.tag("export.format", exportFormat.name());
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid export request: {}", e.getMessage());
+            span.error(e);
+            span.end();
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        
+        // The span stays open until the body has been streamed
+        StreamingResponseBody body = out -> {
+            try {
+                long rows = orderExporter.export(filter, exportFormat, out);
+                span.tag("orders.count", String.valueOf(rows));
+            } catch (Exception e) {
+                logger.error("Order export aborted", e);
+                span.error(e);
+                throw e;
+            } finally {
+                span.end();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+    @GetMapping("/lookup")
+    public ResponseEntity<?> lookupOrders(@RequestParam("ids") List<Long> ids) {
+        return lookup(ids);
+    }
+    
+    @PostMapping("/lookup")
+    public ResponseEntity<?> lookupOrdersByBody(@RequestBody List<Long> ids) {
+        return lookup(ids);
+    }
+    
+    private ResponseEntity<?> lookup(List<Long> requestedIds) {
+        Span span = tracer.nextSpan().name("lookupOrders").start();
+        List<Long> ids;
+        try {
+            ids = orderLookup.validate(requestedIds);
+            logger.debug("Looking up {} orders", ids.size());
+            span.tag("orders.batchSize", String.valueOf(ids.size()));
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid order lookup: {}", e.getMessage());
+            span.error(e);
+            span.end();
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        
+        // The span stays open until the body has been streamed
+        StreamingResponseBody body = out -> {
+            try {
+                int missing = orderLookup.write(ids, out);
+                span.tag("orders.missing", String.valueOf(missing));
+            } catch (Exception e) {
+                logger.error("Order lookup aborted", e);
+                span.error(e);
+                throw e;
+            } finally {
+                span.end();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
     
     @GetMapping("/{id}")
     public ResponseEntity<?> getOrderById(@PathVariable("id") Long id) {
@@ -162,6 +321,10 @@ public class OrderController {
             logger.error("Error updating order: {}", e.getMessage());
             span.error(e);
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Conflict updating order {}: {}", id, e.getMessage());
+            span.error(e);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("Unexpected error updating order", e);
             span.error(e);
@@ -184,20 +347,29 @@ public class OrderController {
                 return ResponseEntity.badRequest().body(Map.of("error", "Status is required"));
             }
             
+            Order.OrderStatus newStatus;
             try {
-                Order.OrderStatus newStatus = Order.OrderStatus.valueOf(statusStr.toUpperCase());
-                span.tag("order.newStatus", newStatus.toString());
-                
-                OrderDTO updatedOrder = orderService.updateOrderStatus(id, newStatus);
-                return ResponseEntity.ok(updatedOrder);
+                newStatus = Order.OrderStatus.valueOf(statusStr.toUpperCase());
             } catch (IllegalArgumentException e) {
                 span.tag("error", "Invalid status");
                 return ResponseEntity.badRequest().body(Map.of("error", "Invalid status: " + statusStr));
             }
+            span.tag("order.newStatus", newStatus.toString());
+            
+            // Optional optimistic check: {"status": "SHIPPED", "version": 3}
+            String versionStr = statusMap.get("version");
+            Long expectedVersion = versionStr != null ? Long.valueOf(versionStr) : null;
+            
+            OrderDTO updatedOrder = orderService.updateOrderStatus(id, newStatus, expectedVersion);
+            return ResponseEntity.ok(updatedOrder);
         } catch (IllegalArgumentException e) {
             logger.error("Error updating order status: {}", e.getMessage());
             span.error(e);
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException | OptimisticLockingFailureException e) {
+            logger.warn("Conflict updating order {} status: {}", id, e.getMessage());
+            span.error(e);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("Unexpected error updating order status", e);
             span.error(e);
@@ -221,6 +393,10 @@ public class OrderController {
             logger.error("Error cancelling order: {}", e.getMessage());
             span.error(e);
             return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            logger.warn("Cannot cancel order {}: {}", id, e.getMessage());
+            span.error(e);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("Unexpected error cancelling order", e);
             span.error(e);
@@ -232,22 +408,76 @@ public class OrderController {
     }
     
     @GetMapping("/stats")
-    public ResponseEntity<Map<String, Object>> getOrderStats() {
+    public ResponseEntity<Map<String, Object>> getOrderStats(WebRequest webRequest) {
         Span span = tracer.nextSpan().name("getOrderStats").start();
         try {
             logger.info("GET /api/orders/stats - Fetching order statistics");
             
+            OrderStatsSnapshot.Stats snapshot = orderService.getOrderStats();
+            String etag = "order-stats-" + snapshot.fingerprint();
+            if (webRequest.checkNotModified(etag)) {
+                span.tag("http.notModified", "true");
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            
             Map<String, Object> stats = new HashMap<>();
-            stats.put("pending", orderService.getOrderCountByStatus(Order.OrderStatus.PENDING));
-            stats.put("processing", orderService.getOrderCountByStatus(Order.OrderStatus.PROCESSING));
-            stats.put("shipped", orderService.getOrderCountByStatus(Order.OrderStatus.SHIPPED));
-            stats.put("delivered", orderService.getOrderCountByStatus(Order.OrderStatus.DELIVERED));
-            stats.put("cancelled", orderService.getOrderCountByStatus(Order.OrderStatus.CANCELLED));
-            stats.put("totalRevenue", orderService.getTotalRevenue());
-            stats.put("deliveredRevenue", orderService.getRevenueByStatus(Order.OrderStatus.DELIVERED));
+            stats.put("pending", snapshot.count(Order.OrderStatus.PENDING));
+            stats.put("processing", snapshot.count(Order.OrderStatus.PROCESSING));
+            stats.put("shipped", snapshot.count(Order.OrderStatus.SHIPPED));
+            stats.put("delivered", snapshot.count(Order.OrderStatus.DELIVERED));
+            stats.put("cancelled", snapshot.count(Order.OrderStatus.CANCELLED));
+            stats.put("totalRevenue", snapshot.totalRevenue());
+            stats.put("deliveredRevenue", snapshot.revenue(Order.OrderStatus.DELIVERED));
+            stats.put("reconciledAt", snapshot.getReconciledAt().toString());
+            stats.put("stalenessMs", snapshot.staleness().toMillis());
             
             span.tag("stats.totalRevenue", stats.get("totalRevenue").toString());
-            return ResponseEntity.ok(stats);
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(stats);
+        } finally {
+            span.end();
+        }
+    }
+    
+    @GetMapping("/revenue")
+    public ResponseEntity<?> getRevenue(
+            @RequestParam(value = "granularity", defaultValue = "hour") String granularity,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "status", required = false) String status) {
+        Span span = tracer.nextSpan().name("getRevenue").start();
+        try {
+            logger.info("GET /api/orders/revenue - Fetching {} revenue from {} to {} (status={})", granularity, from, to, status);
+            RevenueGranularity bucketSize = RevenueGranularity.valueOf(granularity.toUpperCase());
+            Order.OrderStatus orderStatus = status != null ? Order.OrderStatus.valueOf(status.toUpperCase()) : null;
+            LocalDateTime rangeEnd = to != null ? to : LocalDateTime.now();
+            LocalDateTime rangeStart = from != null ? from : rangeEnd.minusDays(1);
+            span.tag("revenue.granularity", bucketSize.name());
+            
+            List<RevenueBucketDTO> buckets = revenueRollups.getRevenue(bucketSize, rangeStart, rangeEnd, orderStatus);
+            span.tag("revenue.buckets", String.valueOf(buckets.size()));
+            return ResponseEntity.ok(buckets);
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid revenue request: {}", e.getMessage());
+            span.error(e);
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } finally {
+            span.end();
+        }
+    }
+    
+    @PostMapping("/revenue/backfill")
+    public ResponseEntity<?> backfillRevenue(@RequestParam(value = "fromScratch", defaultValue = "false") boolean fromScratch) {
+        Span span = tracer.nextSpan().name("backfillRevenue").start();
+        try {
+            logger.info("POST /api/orders/revenue/backfill - Starting revenue rollup backfill (fromScratch={})", fromScratch);
+            if (!revenueRollups.startBackfill(fromScratch)) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "Backfill already running"));
+            }
+            return ResponseEntity.accepted().body(Map.of("message", "Backfill started"));
+        } catch (IllegalStateException e) {
+            logger.error("Cannot start revenue backfill: {}", e.getMessage());
+            span.error(e);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
         } finally {
             span.end();
         }
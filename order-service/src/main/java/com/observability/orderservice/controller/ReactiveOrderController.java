@@ -0,0 +1,69 @@
+package com.observability.orderservice.controller;
+
+import com.observability.orderservice.dto.OrderDTO;
+import com.observability.orderservice.service.OrderService;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Non-blocking twin of POST /api/orders. The returned Mono is handled as an async
+ * request, so the servlet thread is released while the user check and the insert
+ * are in flight.
+ */
+@RestController
+@RequestMapping("/api/orders/reactive")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class ReactiveOrderController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveOrderController.class);
+
+    private final OrderService orderService;
+    private final Tracer tracer;
+
+    public ReactiveOrderController(OrderService orderService, Tracer tracer) {
+        this.orderService = orderService;
+        this.tracer = tracer;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<?>> createOrder(@Valid @RequestBody OrderDTO orderDTO) {
+        Span span = tracer.nextSpan().name("createOrderReactive").start();
+        logger.info("POST /api/orders/reactive - Creating new order for user: {}", orderDTO.getUserId());
+        span.tag("order.userId", orderDTO.getUserId().toString());
+        span.tag("order.productName", orderDTO.getProductName());
+
+        return orderService.createOrderReactive(orderDTO)
+                .<ResponseEntity<?>>map(createdOrder -> {
+                    span.tag("order.id", createdOrder.getId().toString());
+                    return ResponseEntity.status(HttpStatus.CREATED).body(createdOrder);
+                })
+                .onErrorResume(IllegalArgumentException.class, e -> {
+                    logger.error("Error creating order: {}", e.getMessage());
+                    span.error(e);
+                    return Mono.just(ResponseEntity.badRequest().body(Map.of("error", e.getMessage())));
+                })
+                .onErrorResume(RejectedExecutionException.class, e -> {
+                    logger.warn("Order database queue is full, rejecting order");
+                    span.error(e);
+                    return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                            .body(Map.of("error", "Order service is busy, retry later")));
+                })
+                .onErrorResume(e -> {
+                    logger.error("Unexpected error creating order", e);
+                    span.error(e);
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                            .body(Map.of("error", "Failed to create order")));
+                })
+                .doFinally(signal -> span.end());
+    }
+}
@@ -0,0 +1,104 @@
+package com.observability.orderservice.dto;
+
+import java.util.List;
+
+public class BatchOrderResultDTO {
+
+    private List<ItemResult> items;
+    private int created;
+    private int rejected;
+
+    // Constructors
+    public BatchOrderResultDTO() {}
+
+    public BatchOrderResultDTO(List<ItemResult> items) {
+        this.items = items;
+        this.created = (int) items.stream().filter(ItemResult::isCreated).count();
+        this.rejected = items.size() - created;
+    }
+
+    // Getters and Setters
+    public List<ItemResult> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ItemResult> items) {
+        this.items = items;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+
+    /**
+     * Outcome for one element of the request, identified by its position.
+     */
+    public static class ItemResult {
+
+        private int index;
+        private boolean created;
+        private OrderDTO order;
+        private String error;
+
+        public ItemResult() {}
+
+        public static ItemResult created(int index, OrderDTO order) {
+            ItemResult result = new ItemResult();
+            result.index = index;
+            result.created = true;
+            result.order = order;
+            return result;
+        }
+
+        public static ItemResult rejected(int index, String error) {
+            ItemResult result = new ItemResult();
+            result.index = index;
+            result.error = error;
+            return result;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public void setIndex(int index) {
+            this.index = index;
+        }
+
+        public boolean isCreated() {
+            return created;
+        }
+
+        public void setCreated(boolean created) {
+            this.created = created;
+        }
+
+        public OrderDTO getOrder() {
+            return order;
+        }
+
+        public void setOrder(OrderDTO order) {
+            this.order = order;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public void setError(String error) {
+            this.error = error;
+        }
+    }
+}
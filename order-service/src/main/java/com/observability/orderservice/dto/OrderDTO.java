@@ -29,13 +29,15 @@ public class OrderDTO {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private String shippingAddress;
+    private Long version;
     
     // Constructors
     public OrderDTO() {}
     
     public OrderDTO(Long id, Long userId, String productName, Integer quantity,
                    BigDecimal price, BigDecimal totalAmount, Order.OrderStatus status,
-                   LocalDateTime createdAt, LocalDateTime updatedAt, String shippingAddress) {
+                   LocalDateTime createdAt, LocalDateTime updatedAt, String shippingAddress,
+                   Long version) {
         this.id = id;
         this.userId = userId;
         this.productName = productName;
@@ -46,6 +48,7 @@ public class OrderDTO {
         this.createdAt = createdAt;
         this.updatedAt = updatedAt;
         this.shippingAddress = shippingAddress;
+        this.version = version;
     }
     
     // Getters and Setters
@@ -128,5 +131,13 @@ public class OrderDTO {
     public void setShippingAddress(String shippingAddress) {
         this.shippingAddress = shippingAddress;
     }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
 
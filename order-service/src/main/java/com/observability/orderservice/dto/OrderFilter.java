@@ -0,0 +1,42 @@
+package com.observability.orderservice.dto;
+
+import com.observability.orderservice.model.Order;
+import java.time.LocalDateTime;
+
+/**
+ * Optional criteria for bulk order reads. Null fields do not filter. The createdAt range
+ * includes from and excludes to.
+ */
+public class OrderFilter {
+    
+    private final Order.OrderStatus status;
+    private final Long userId;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    
+    public OrderFilter(Order.OrderStatus status, Long userId, LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        this.status = status;
+        this.userId = userId;
+        this.from = from;
+        this.to = to;
+    }
+    
+    public Order.OrderStatus getStatus() {
+        return status;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public LocalDateTime getFrom() {
+        return from;
+    }
+    
+    public LocalDateTime getTo() {
+        return to;
+    }
+}
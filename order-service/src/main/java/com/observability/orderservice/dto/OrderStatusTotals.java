@@ -0,0 +1,29 @@
+package com.observability.orderservice.dto;
+
+import com.observability.orderservice.model.Order;
+import java.math.BigDecimal;
+
+public class OrderStatusTotals {
+    
+    private final Order.OrderStatus status;
+    private final long count;
+    private final BigDecimal revenue;
+    
+    public OrderStatusTotals(Order.OrderStatus status, Long count, BigDecimal revenue) {
+        this.status = status;
+        this.count = count != null ? count : 0L;
+        this.revenue = revenue != null ? revenue : BigDecimal.ZERO;
+    }
+    
+    public Order.OrderStatus getStatus() {
+        return status;
+    }
+    
+    public long getCount() {
+        return count;
+    }
+    
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+}
@@ -0,0 +1,60 @@
+package com.observability.orderservice.dto;
+
+import com.observability.orderservice.model.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class RevenueBucketDTO {
+
+    private LocalDateTime bucketStart;
+    private Order.OrderStatus status;
+    private long orderCount;
+    private BigDecimal revenue;
+
+    // Constructors
+    public RevenueBucketDTO() {}
+
+    public RevenueBucketDTO(LocalDateTime bucketStart, Order.OrderStatus status, long orderCount, BigDecimal revenue) {
+        this.bucketStart = bucketStart;
+        this.status = status;
+        this.orderCount = orderCount;
+        this.revenue = revenue;
+    }
+
+    // Getters and Setters
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    /**
+     * The status the bucket is filtered to, or null when it covers all statuses.
+     */
+    public Order.OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(Order.OrderStatus status) {
+        this.status = status;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+}
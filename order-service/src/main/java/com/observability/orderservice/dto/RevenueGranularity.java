@@ -0,0 +1,44 @@
+package com.observability.orderservice.dto;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Bucket sizes kept by the revenue rollup, finest first. Each size is built from the
+ * one before it; MINUTE is built from the orders table.
+ */
+public enum RevenueGranularity {
+    MINUTE(ChronoUnit.MINUTES, "1 minute"),
+    HOUR(ChronoUnit.HOURS, "1 hour"),
+    DAY(ChronoUnit.DAYS, "1 day");
+
+    private final ChronoUnit unit;
+    private final String interval;
+
+    RevenueGranularity(ChronoUnit unit, String interval) {
+        this.unit = unit;
+        this.interval = interval;
+    }
+
+    public LocalDateTime truncate(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+
+    public long bucketsBetween(LocalDateTime from, LocalDateTime to) {
+        return unit.between(truncate(from), to) + 1;
+    }
+
+    /**
+     * Bucket length as a Postgres interval literal.
+     */
+    public String getInterval() {
+        return interval;
+    }
+
+    /**
+     * The granularity this one is summed from, or null for MINUTE.
+     */
+    public RevenueGranularity getSource() {
+        return ordinal() == 0 ? null : values()[ordinal() - 1];
+    }
+}
@@ -0,0 +1,13 @@
+package com.observability.orderservice.event;
+
+import java.util.List;
+
+/**
+ * Receives each batch the relay claims, inside the claiming transaction. Work done here
+ * commits together with the removal of the events from the outbox, so it happens exactly
+ * once per event. Throwing rolls the batch back into the outbox and the relay retries it.
+ */
+public interface OrderChangeBatchListener {
+
+	void onBatch(List<OrderChangeEvent> events);
+}
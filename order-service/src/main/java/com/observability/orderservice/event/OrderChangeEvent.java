@@ -0,0 +1,38 @@
+package com.observability.orderservice.event;
+
+import com.observability.orderservice.model.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A committed change to one order, as written to the outbox and delivered to subscribers.
+ * sequence is the outbox id. Events for one order are delivered in sequence order.
+ * origin is the instance that made the write, so subscribers can skip changes they
+ * already applied locally.
+ */
+public record OrderChangeEvent(long sequence, Type type, Long orderId, Long userId, Order.OrderStatus status,
+		Order.OrderStatus previousStatus, BigDecimal totalAmount, BigDecimal previousTotalAmount,
+		LocalDateTime orderCreatedAt, LocalDateTime occurredAt, String origin) {
+
+	public enum Type {
+		CREATED, UPDATED, STATUS_CHANGED
+	}
+
+	public static OrderChangeEvent created(Order order) {
+		return new OrderChangeEvent(0, Type.CREATED, order.getId(), order.getUserId(), order.getStatus(), null,
+				order.getTotalAmount(), null, order.getCreatedAt(), LocalDateTime.now(), null);
+	}
+
+	public static OrderChangeEvent updated(Order order, BigDecimal previousTotalAmount) {
+		return new OrderChangeEvent(0, Type.UPDATED, order.getId(), order.getUserId(), order.getStatus(),
+				order.getStatus(), order.getTotalAmount(), previousTotalAmount, order.getCreatedAt(), LocalDateTime.now(),
+				null);
+	}
+
+	public static OrderChangeEvent statusChanged(Order order, Order.OrderStatus previousStatus) {
+		return new OrderChangeEvent(0, Type.STATUS_CHANGED, order.getId(), order.getUserId(), order.getStatus(),
+				previousStatus, order.getTotalAmount(), order.getTotalAmount(), order.getCreatedAt(), LocalDateTime.now(),
+				null);
+	}
+}
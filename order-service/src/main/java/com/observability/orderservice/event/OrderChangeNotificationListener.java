@@ -0,0 +1,140 @@
+package com.observability.orderservice.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Listens on the order change channel and republishes every notification as an
+ * in-process {@link OrderChangeEvent}. The connection is opened outside the pool and held
+ * for the life of the process. If the connection drops, it reconnects with backoff.
+ * Events notified while disconnected are not replayed; subscribers that need exact
+ * totals reconcile on their own schedule.
+ */
+@Component
+@ConditionalOnProperty(name = "order.outbox.notify.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderChangeNotificationListener {
+
+	private static final Logger logger = LoggerFactory.getLogger(OrderChangeNotificationListener.class);
+
+	private static final int POLL_TIMEOUT_MS = 1000;
+	private static final long MAX_BACKOFF_MS = 30_000;
+
+	private final DataSource dataSource;
+	private final ObjectMapper objectMapper;
+	private final ApplicationEventPublisher eventPublisher;
+	private final Counter receivedCounter;
+	private volatile boolean running;
+	private volatile Connection connection;
+	private Thread thread;
+
+	public OrderChangeNotificationListener(DataSource dataSource, ObjectMapper objectMapper,
+			ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+		this.dataSource = dataSource;
+		this.objectMapper = objectMapper;
+		this.eventPublisher = eventPublisher;
+		this.receivedCounter = Counter.builder("order.outbox.notifications.received")
+				.description("Order change notifications received from Postgres")
+				.register(meterRegistry);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void start() {
+		running = true;
+		thread = new Thread(this::listen, "order-change-listener");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	@PreDestroy
+	public void stop() {
+		running = false;
+		closeQuietly(connection);
+		if (thread != null) {
+			thread.interrupt();
+		}
+	}
+
+	private void listen() {
+		long backoffMs = 500;
+		while (running) {
+			try (Connection listenConnection = openConnection()) {
+				connection = listenConnection;
+				try (Statement statement = listenConnection.createStatement()) {
+					statement.execute("LISTEN " + OrderOutboxRelay.CHANNEL);
+				}
+				logger.info("Listening for order changes on channel {}", OrderOutboxRelay.CHANNEL);
+				backoffMs = 500;
+
+				PGConnection pgConnection = listenConnection.unwrap(PGConnection.class);
+				while (running) {
+					PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+					if (notifications == null) {
+						continue;
+					}
+					for (PGNotification notification : notifications) {
+						publish(notification.getParameter());
+					}
+				}
+			} catch (SQLException e) {
+				if (!running) {
+					return;
+				}
+				logger.warn("Order change listener disconnected, retrying in {} ms: {}", backoffMs, e.getMessage());
+				try {
+					Thread.sleep(backoffMs);
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+			}
+		}
+	}
+
+	private void publish(String payload) {
+		receivedCounter.increment();
+		try {
+			eventPublisher.publishEvent(objectMapper.readValue(payload, OrderChangeEvent.class));
+		} catch (Exception e) {
+			// One bad payload or subscriber must not stop the feed
+			logger.warn("Could not dispatch order change notification: {}", e.getMessage());
+		}
+	}
+
+	// A dedicated connection, so LISTEN never pins one of the pooled connections
+	private Connection openConnection() throws SQLException {
+		if (dataSource instanceof HikariDataSource hikari) {
+			return DriverManager.getConnection(hikari.getJdbcUrl(), hikari.getUsername(), hikari.getPassword());
+		}
+		return dataSource.getConnection();
+	}
+
+	private static void closeQuietly(Connection connection) {
+		if (connection == null) {
+			return;
+		}
+		try {
+			connection.close();
+		} catch (SQLException e) {
+			logger.debug("Error closing order change listener connection: {}", e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package com.observability.orderservice.event;
+
+import com.observability.orderservice.model.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The order_outbox table. OrderService appends inside its own transaction, so an event
+ * exists exactly when the change it describes was committed. The relay claims events in
+ * id order and deletes them as it publishes.
+ */
+@Component
+public class OrderOutbox {
+
+	private static final String INSERT_SQL = "INSERT INTO order_outbox "
+			+ "(event_type, order_id, user_id, status, previous_status, total_amount, previous_total_amount, "
+			+ "order_created_at, occurred_at, origin) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+	private static final String CLAIM_SQL = "DELETE FROM order_outbox WHERE id IN "
+			+ "(SELECT id FROM order_outbox ORDER BY id LIMIT ?) RETURNING *";
+
+	private static final String BUMP_VERSION_SQL = "UPDATE order_change_version "
+			+ "SET version = version + 1, updated_at = clock_timestamp() WHERE id = 1";
+
+	private static final String CHANGE_VERSION_SQL = "SELECT v.version || '-' || (SELECT count(*) FROM order_outbox) "
+			+ "FROM order_change_version v WHERE v.id = 1";
+
+	private static final RowMapper<OrderChangeEvent> EVENT_MAPPER = (rs, rowNum) -> new OrderChangeEvent(
+			rs.getLong("id"),
+			OrderChangeEvent.Type.valueOf(rs.getString("event_type")),
+			rs.getLong("order_id"),
+			rs.getLong("user_id"),
+			Order.OrderStatus.valueOf(rs.getString("status")),
+			rs.getString("previous_status") != null ? Order.OrderStatus.valueOf(rs.getString("previous_status")) : null,
+			rs.getBigDecimal("total_amount"),
+			rs.getBigDecimal("previous_total_amount"),
+			rs.getObject("order_created_at", LocalDateTime.class),
+			rs.getObject("occurred_at", LocalDateTime.class),
+			rs.getString("origin"));
+
+	private final JdbcTemplate jdbcTemplate;
+	private final String instanceId = UUID.randomUUID().toString();
+
+	public OrderOutbox(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Identifies this process as the origin of the events it appends.
+	 */
+	public String getInstanceId() {
+		return instanceId;
+	}
+
+	/**
+	 * Appends events in the caller's transaction, as one JDBC batch.
+	 */
+	public void append(List<OrderChangeEvent> events) {
+		if (events.isEmpty()) {
+			return;
+		}
+		jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (ps, event) -> {
+			ps.setString(1, event.type().name());
+			ps.setLong(2, event.orderId());
+			ps.setLong(3, event.userId());
+			ps.setString(4, event.status().name());
+			ps.setString(5, event.previousStatus() != null ? event.previousStatus().name() : null);
+			ps.setBigDecimal(6, event.totalAmount());
+			ps.setBigDecimal(7, event.previousTotalAmount());
+			ps.setTimestamp(8, event.orderCreatedAt() != null ? Timestamp.valueOf(event.orderCreatedAt()) : null);
+			ps.setTimestamp(9, Timestamp.valueOf(event.occurredAt()));
+			ps.setString(10, instanceId);
+		});
+	}
+
+	public void append(OrderChangeEvent event) {
+		append(List.of(event));
+	}
+
+	/**
+	 * Removes and returns up to batchSize of the oldest events, in id order. Must run in
+	 * a transaction, so the events come back if publishing fails.
+	 */
+	List<OrderChangeEvent> claim(int batchSize) {
+		List<OrderChangeEvent> events = jdbcTemplate.query(CLAIM_SQL, EVENT_MAPPER, batchSize);
+		if (!events.isEmpty()) {
+			jdbcTemplate.update(BUMP_VERSION_SQL);
+		}
+		// DELETE ... RETURNING does not guarantee order
+		events.sort(Comparator.comparingLong(OrderChangeEvent::sequence));
+		return events;
+	}
+
+	/**
+	 * A token that changes whenever an order change commits. Appends raise the outbox
+	 * count, and each relayed batch bumps the version in the same transaction that
+	 * removes its events, so the pair never repeats. Costs one row read plus a count of
+	 * the (normally near-empty) outbox.
+	 */
+	public String changeVersion() {
+		return jdbcTemplate.queryForObject(CHANGE_VERSION_SQL, String.class);
+	}
+}
@@ -0,0 +1,134 @@
+package com.observability.orderservice.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves events from the outbox to subscribers. Each run takes a transaction-scoped advisory
+ * lock, so one instance relays at a time and events leave the outbox in id order. A claimed
+ * batch is sent with one pg_notify call per event, all in a single statement. Postgres
+ * delivers them at commit, in send order, to every instance listening on
+ * {@value #CHANNEL}, including this one. With notifications disabled, the batch is
+ * published in-process only, after commit. {@link OrderChangeBatchListener}s see each batch
+ * before the claim commits.
+ */
+@Component
+public class OrderOutboxRelay {
+
+	public static final String CHANNEL = "order_changes";
+
+	private static final Logger logger = LoggerFactory.getLogger(OrderOutboxRelay.class);
+
+	// Arbitrary key shared by all order-service instances
+	public static final long RELAY_LOCK_KEY = 0x6f726465726f7574L;
+
+	private static final String NOTIFY_SQL = "SELECT pg_notify('" + CHANNEL + "', payload) "
+			+ "FROM unnest(?) WITH ORDINALITY AS t(payload, n) ORDER BY n";
+
+	private final OrderOutbox outbox;
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final ObjectMapper objectMapper;
+	private final ApplicationEventPublisher eventPublisher;
+	private final ObjectProvider<OrderChangeBatchListener> batchListeners;
+	private final int batchSize;
+	private final int maxBatchesPerRun;
+	private final boolean notifyEnabled;
+	private final Counter relayedCounter;
+	private final Timer relayLagTimer;
+
+	public OrderOutboxRelay(OrderOutbox outbox, JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+			ObjectMapper objectMapper, ApplicationEventPublisher eventPublisher,
+			ObjectProvider<OrderChangeBatchListener> batchListeners,
+			@Value("${order.outbox.relay.batch-size:500}") int batchSize,
+			@Value("${order.outbox.relay.max-batches-per-run:20}") int maxBatchesPerRun,
+			@Value("${order.outbox.notify.enabled:true}") boolean notifyEnabled, MeterRegistry meterRegistry) {
+		this.outbox = outbox;
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.objectMapper = objectMapper;
+		this.eventPublisher = eventPublisher;
+		this.batchListeners = batchListeners;
+		this.batchSize = batchSize;
+		this.maxBatchesPerRun = maxBatchesPerRun;
+		this.notifyEnabled = notifyEnabled;
+		this.relayedCounter = Counter.builder("order.outbox.relayed")
+				.description("Order change events moved out of the outbox")
+				.register(meterRegistry);
+		this.relayLagTimer = Timer.builder("order.outbox.lag")
+				.description("Time from an order change to its relay")
+				.publishPercentileHistogram()
+				.register(meterRegistry);
+	}
+
+	@Scheduled(fixedDelayString = "${order.outbox.relay.interval-ms:200}")
+	public void relay() {
+		try {
+			for (int i = 0; i < maxBatchesPerRun; i++) {
+				if (relayBatch() < batchSize) {
+					return;
+				}
+			}
+		} catch (Exception e) {
+			logger.warn("Order outbox relay failed, will retry: {}", e.getMessage());
+		}
+	}
+
+	private int relayBatch() {
+		List<OrderChangeEvent> batch = transactionTemplate.execute(tx -> {
+			Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class,
+					RELAY_LOCK_KEY);
+			if (!Boolean.TRUE.equals(locked)) {
+				return List.<OrderChangeEvent>of();
+			}
+			List<OrderChangeEvent> events = outbox.claim(batchSize);
+			if (!events.isEmpty()) {
+				batchListeners.orderedStream().forEach(listener -> listener.onBatch(events));
+			}
+			if (notifyEnabled && !events.isEmpty()) {
+				notifySubscribers(events);
+			}
+			return events;
+		});
+
+		LocalDateTime now = LocalDateTime.now();
+		for (OrderChangeEvent event : batch) {
+			relayLagTimer.record(Duration.between(event.occurredAt(), now));
+			if (!notifyEnabled) {
+				eventPublisher.publishEvent(event);
+			}
+		}
+		relayedCounter.increment(batch.size());
+		return batch.size();
+	}
+
+	private void notifySubscribers(List<OrderChangeEvent> events) {
+		String[] payloads = new String[events.size()];
+		for (int i = 0; i < payloads.length; i++) {
+			try {
+				payloads[i] = objectMapper.writeValueAsString(events.get(i));
+			} catch (JsonProcessingException e) {
+				throw new IllegalStateException("Could not serialize order change " + events.get(i).sequence(), e);
+			}
+		}
+		jdbcTemplate.query(NOTIFY_SQL, ps -> ps.setArray(1, ps.getConnection().createArrayOf("text", payloads)),
+				rs -> null);
+	}
+}
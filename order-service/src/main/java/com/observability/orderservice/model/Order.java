@@ -6,9 +6,16 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
 
 @Entity
-@Table(name = "orders")
+// Mirrors db/migration/V2; the covering INCLUDE (total_amount) index has no JPA equivalent
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_user_id_created_at", columnList = "user_id, created_at DESC"),
+        @Index(name = "idx_orders_status_created_at", columnList = "status, created_at DESC"),
+        @Index(name = "idx_orders_created_at_id", columnList = "created_at DESC, id DESC")
+})
 public class Order {
     
     @Id
@@ -47,6 +54,10 @@ public class Order {
     
     private String shippingAddress;
     
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -59,7 +70,27 @@ public class Order {
     }
     
     public enum OrderStatus {
-        PENDING, PROCESSING, SHIPPED, DELIVERED, CANCELLED
+        PENDING, PROCESSING, SHIPPED, DELIVERED, CANCELLED;
+        
+        /**
+         * Fulfilment only moves forward. An order can be cancelled until it ships, and
+         * DELIVERED and CANCELLED are final.
+         */
+        public boolean canTransitionTo(OrderStatus next) {
+            return switch (this) {
+                case PENDING -> next == PROCESSING || next == CANCELLED;
+                case PROCESSING -> next == SHIPPED || next == CANCELLED;
+                case SHIPPED -> next == DELIVERED;
+                case DELIVERED, CANCELLED -> false;
+            };
+        }
+        
+        /**
+         * Statuses from which an order may move to this one.
+         */
+        public List<OrderStatus> predecessors() {
+            return Arrays.stream(values()).filter(status -> status.canTransitionTo(this)).toList();
+        }
     }
     
     // Getters and Setters
@@ -142,5 +173,13 @@ public class Order {
     public void setShippingAddress(String shippingAddress) {
         this.shippingAddress = shippingAddress;
     }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
 
@@ -1,26 +1,54 @@
 package com.observability.orderservice.repository;
 
+import com.observability.orderservice.dto.OrderDTO;
+import com.observability.orderservice.dto.OrderStatusTotals;
 import com.observability.orderservice.model.Order;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
-
-	List<Order> findByUserId(Long userId);
-
-	List<Order> findByStatus(Order.OrderStatus status);
-
-	@Query("SELECT COUNT(o) FROM Order o WHERE o.status = :status")
-	long countByStatus(Order.OrderStatus status);
-
-	@Query("SELECT SUM(o.totalAmount) FROM Order o WHERE o.status = :status")
-	BigDecimal sumTotalAmountByStatus(Order.OrderStatus status);
-
-	@Query("SELECT SUM(o.totalAmount) FROM Order o")
-	BigDecimal sumAllTotalAmount();
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderRepositoryCustom {
+
+	// Read-only projections: rows go straight into OrderDTO without managed entities
+	String SELECT_ORDER_DTO = "SELECT new com.observability.orderservice.dto.OrderDTO(o.id, o.userId, o.productName, "
+			+ "o.quantity, o.price, o.totalAmount, o.status, o.createdAt, o.updatedAt, o.shippingAddress, o.version) "
+			+ "FROM Order o";
+
+	// Transactional here rather than in the service, so cache hits never take a connection
+	@Transactional(readOnly = true)
+	@Query(SELECT_ORDER_DTO + " WHERE o.id = :id")
+	Optional<OrderDTO> findDtoById(Long id);
+
+	@Query(SELECT_ORDER_DTO + " WHERE o.userId = :userId")
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	List<OrderDTO> findDtosByUserId(Long userId);
+
+	@Query(SELECT_ORDER_DTO + " WHERE o.status = :status")
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	List<OrderDTO> findDtosByStatus(Order.OrderStatus status);
+
+	// Keyset pages, newest first. The limit comes from the Pageable, so the result is
+	// bounded by the page size and the fetch size keeps the driver from buffering more.
+	@Query("SELECT o FROM Order o ORDER BY o.createdAt DESC, o.id DESC")
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	List<Order> findFirstPage(Pageable pageable);
+
+	@Query("SELECT o FROM Order o WHERE o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id) "
+			+ "ORDER BY o.createdAt DESC, o.id DESC")
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	List<Order> findPageAfter(LocalDateTime createdAt, Long id, Pageable pageable);
+
+	@Query("SELECT new com.observability.orderservice.dto.OrderStatusTotals(o.status, COUNT(o), SUM(o.totalAmount)) "
+			+ "FROM Order o GROUP BY o.status")
+	List<OrderStatusTotals> aggregateByStatus();
 }
@@ -0,0 +1,41 @@
+package com.observability.orderservice.repository;
+
+import com.observability.orderservice.dto.OrderDTO;
+import com.observability.orderservice.dto.OrderFilter;
+import com.observability.orderservice.model.Order;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Paths that go through plain JDBC instead of the persistence context.
+ */
+public interface OrderRepositoryCustom {
+
+	/**
+	 * Inserts all orders as a single JDBC batch and sets the generated ids and
+	 * timestamps on the given instances.
+	 */
+	List<Order> insertAll(List<Order> orders);
+
+	/**
+	 * Moves an order to the given status in one statement. The update only applies when
+	 * the current status may transition to the new one and, if expectedVersion is set,
+	 * when the version matches. Returns null when the order does not exist.
+	 */
+	StatusTransition transitionStatus(Long id, Order.OrderStatus newStatus, Long expectedVersion);
+
+	/**
+	 * Reads matching orders in id order through a forward-only cursor, fetchSize rows per
+	 * round trip, and hands each row to the consumer as it arrives. Must run in a
+	 * transaction; without one the driver materializes the whole result.
+	 */
+	void streamOrders(OrderFilter filter, int fetchSize, Consumer<OrderDTO> consumer);
+
+	/**
+	 * Reads the orders with the given ids in id order, in one statement whose text does
+	 * not depend on the number of ids, and hands each row to the consumer.
+	 */
+	void streamOrdersByIds(Collection<Long> ids, Consumer<OrderDTO> consumer);
+}
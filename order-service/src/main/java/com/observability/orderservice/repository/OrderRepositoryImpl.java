@@ -0,0 +1,186 @@
+package com.observability.orderservice.repository;
+
+import com.observability.orderservice.dto.OrderDTO;
+import com.observability.orderservice.dto.OrderFilter;
+import com.observability.orderservice.model.Order;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+	private static final String INSERT_SQL = "INSERT INTO orders "
+			+ "(user_id, product_name, quantity, price, total_amount, status, created_at, updated_at, shipping_address) "
+			+ "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+	// Locks the row, applies the guarded update and returns the locked values alongside
+	// the new row. The LEFT JOIN yields the locked values even when the guard rejects
+	// the update, so not-found, illegal and applied all take one round trip.
+	private static final String TRANSITION_SQL = "WITH current_row AS ("
+			+ "SELECT id, status, version FROM orders WHERE id = ? FOR UPDATE"
+			+ "), updated AS ("
+			+ "UPDATE orders o SET status = ?, version = o.version + 1, updated_at = ? FROM current_row c "
+			+ "WHERE o.id = c.id AND c.status = ANY (?) AND (CAST(? AS BIGINT) IS NULL OR c.version = ?) "
+			+ "RETURNING o.*"
+			+ ") SELECT c.status AS previous_status, c.version AS previous_version, u.* "
+			+ "FROM current_row c LEFT JOIN updated u ON true";
+
+	private static final String SELECT_BY_IDS_SQL = "SELECT id, user_id, product_name, quantity, price, "
+			+ "total_amount, status, created_at, updated_at, shipping_address, version FROM orders "
+			+ "WHERE id = ANY (?) ORDER BY id";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	OrderRepositoryImpl(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	@Override
+	public List<Order> insertAll(List<Order> orders) {
+		if (orders.isEmpty()) {
+			return orders;
+		}
+		LocalDateTime now = LocalDateTime.now();
+		Timestamp timestamp = Timestamp.valueOf(now);
+		KeyHolder keyHolder = new GeneratedKeyHolder();
+
+		// IDENTITY ids rule out Hibernate insert batching, so the rows go out as one
+		// JDBC batch and the ids come back through the generated keys. With
+		// reWriteBatchedInserts on the JDBC URL the driver sends them as multi-row INSERTs.
+		jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_SQL, new String[] { "id" }),
+				new BatchPreparedStatementSetter() {
+					@Override
+					public void setValues(PreparedStatement ps, int i) throws SQLException {
+						Order order = orders.get(i);
+						ps.setLong(1, order.getUserId());
+						ps.setString(2, order.getProductName());
+						ps.setInt(3, order.getQuantity());
+						ps.setBigDecimal(4, order.getPrice());
+						ps.setBigDecimal(5, order.getTotalAmount());
+						ps.setString(6, order.getStatus().name());
+						ps.setTimestamp(7, timestamp);
+						ps.setTimestamp(8, timestamp);
+						ps.setString(9, order.getShippingAddress());
+					}
+
+					@Override
+					public int getBatchSize() {
+						return orders.size();
+					}
+				}, keyHolder);
+
+		List<Map<String, Object>> keys = keyHolder.getKeyList();
+		for (int i = 0; i < orders.size(); i++) {
+			Order order = orders.get(i);
+			order.setId(((Number) keys.get(i).get("id")).longValue());
+			order.setCreatedAt(now);
+			order.setUpdatedAt(now);
+			order.setVersion(0L);
+		}
+		return orders;
+	}
+
+	@Override
+	public StatusTransition transitionStatus(Long id, Order.OrderStatus newStatus, Long expectedVersion) {
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		String[] allowedFrom = newStatus.predecessors().stream().map(Enum::name).toArray(String[]::new);
+
+		return jdbcTemplate.query(TRANSITION_SQL, ps -> {
+			ps.setLong(1, id);
+			ps.setString(2, newStatus.name());
+			ps.setTimestamp(3, now);
+			ps.setArray(4, ps.getConnection().createArrayOf("varchar", allowedFrom));
+			ps.setObject(5, expectedVersion, Types.BIGINT);
+			ps.setObject(6, expectedVersion, Types.BIGINT);
+		}, rs -> {
+			if (!rs.next()) {
+				return null;
+			}
+			Order.OrderStatus previousStatus = Order.OrderStatus.valueOf(rs.getString("previous_status"));
+			long previousVersion = rs.getLong("previous_version");
+			rs.getLong("id");
+			Order order = rs.wasNull() ? null : mapOrder(rs);
+			return new StatusTransition(previousStatus, previousVersion, order);
+		});
+	}
+
+	@Override
+	public void streamOrders(OrderFilter filter, int fetchSize, Consumer<OrderDTO> consumer) {
+		StringBuilder sql = new StringBuilder("SELECT id, user_id, product_name, quantity, price, total_amount, "
+				+ "status, created_at, updated_at, shipping_address, version FROM orders WHERE true");
+		List<Object> args = new ArrayList<>();
+		if (filter.getStatus() != null) {
+			sql.append(" AND status = ?");
+			args.add(filter.getStatus().name());
+		}
+		if (filter.getUserId() != null) {
+			sql.append(" AND user_id = ?");
+			args.add(filter.getUserId());
+		}
+		if (filter.getFrom() != null) {
+			sql.append(" AND created_at >= ?");
+			args.add(filter.getFrom());
+		}
+		if (filter.getTo() != null) {
+			sql.append(" AND created_at < ?");
+			args.add(filter.getTo());
+		}
+		sql.append(" ORDER BY id");
+
+		jdbcTemplate.query(con -> {
+			PreparedStatement ps = con.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY,
+					ResultSet.CONCUR_READ_ONLY);
+			ps.setFetchSize(fetchSize);
+			for (int i = 0; i < args.size(); i++) {
+				ps.setObject(i + 1, args.get(i));
+			}
+			return ps;
+		}, (RowCallbackHandler) rs -> consumer.accept(mapOrderDTO(rs)));
+	}
+
+	@Override
+	public void streamOrdersByIds(Collection<Long> ids, Consumer<OrderDTO> consumer) {
+		Long[] idArray = ids.toArray(Long[]::new);
+		jdbcTemplate.query(SELECT_BY_IDS_SQL,
+				ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", idArray)),
+				(RowCallbackHandler) rs -> consumer.accept(mapOrderDTO(rs)));
+	}
+
+	private static OrderDTO mapOrderDTO(ResultSet rs) throws SQLException {
+		return new OrderDTO(rs.getLong("id"), rs.getLong("user_id"), rs.getString("product_name"),
+				rs.getInt("quantity"), rs.getBigDecimal("price"), rs.getBigDecimal("total_amount"),
+				Order.OrderStatus.valueOf(rs.getString("status")), rs.getObject("created_at", LocalDateTime.class),
+				rs.getObject("updated_at", LocalDateTime.class), rs.getString("shipping_address"),
+				rs.getLong("version"));
+	}
+
+	private static Order mapOrder(ResultSet rs) throws SQLException {
+		Order order = new Order();
+		order.setId(rs.getLong("id"));
+		order.setUserId(rs.getLong("user_id"));
+		order.setProductName(rs.getString("product_name"));
+		order.setQuantity(rs.getInt("quantity"));
+		order.setPrice(rs.getBigDecimal("price"));
+		order.setTotalAmount(rs.getBigDecimal("total_amount"));
+		order.setStatus(Order.OrderStatus.valueOf(rs.getString("status")));
+		order.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+		order.setUpdatedAt(rs.getObject("updated_at", LocalDateTime.class));
+		order.setShippingAddress(rs.getString("shipping_address"));
+		order.setVersion(rs.getLong("version"));
+		return order;
+	}
+}
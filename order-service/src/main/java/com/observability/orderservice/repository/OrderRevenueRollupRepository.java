@@ -0,0 +1,147 @@
+package com.observability.orderservice.repository;
+
+import com.observability.orderservice.dto.RevenueBucketDTO;
+import com.observability.orderservice.dto.RevenueGranularity;
+import com.observability.orderservice.event.OrderOutboxRelay;
+import com.observability.orderservice.model.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The order_revenue_rollup table. Buckets are never adjusted by deltas: rebuild recomputes
+ * whole buckets from their source, so applying the same change twice, or out of order,
+ * leaves the same result.
+ */
+@Repository
+public class OrderRevenueRollupRepository {
+
+	private static final String DELETE_SQL = "DELETE FROM order_revenue_rollup "
+			+ "WHERE granularity = ? AND bucket_start = ANY (?)";
+
+	// One index range scan on orders.created_at per bucket
+	private static final String INSERT_FROM_ORDERS_SQL = "INSERT INTO order_revenue_rollup "
+			+ "(granularity, bucket_start, status, order_count, revenue) "
+			+ "SELECT ?, b.start, o.status, count(*), sum(o.total_amount) "
+			+ "FROM unnest(?) AS b(start) "
+			+ "JOIN orders o ON o.created_at >= b.start AND o.created_at < b.start + CAST(? AS INTERVAL) "
+			+ "GROUP BY b.start, o.status";
+
+	private static final String INSERT_FROM_ROLLUP_SQL = "INSERT INTO order_revenue_rollup "
+			+ "(granularity, bucket_start, status, order_count, revenue) "
+			+ "SELECT ?, b.start, r.status, sum(r.order_count), sum(r.revenue) "
+			+ "FROM unnest(?) AS b(start) "
+			+ "JOIN order_revenue_rollup r ON r.granularity = ? "
+			+ "AND r.bucket_start >= b.start AND r.bucket_start < b.start + CAST(? AS INTERVAL) "
+			+ "GROUP BY b.start, r.status";
+
+	private static final String SELECT_BY_STATUS_SQL = "SELECT bucket_start, status, order_count, revenue "
+			+ "FROM order_revenue_rollup WHERE granularity = ? AND bucket_start >= ? AND bucket_start < ? "
+			+ "AND status = ? ORDER BY bucket_start";
+
+	private static final String SELECT_TOTALS_SQL = "SELECT bucket_start, NULL AS status, "
+			+ "sum(order_count) AS order_count, sum(revenue) AS revenue "
+			+ "FROM order_revenue_rollup WHERE granularity = ? AND bucket_start >= ? AND bucket_start < ? "
+			+ "GROUP BY bucket_start ORDER BY bucket_start";
+
+	private static final RowMapper<RevenueBucketDTO> BUCKET_MAPPER = (rs, rowNum) -> new RevenueBucketDTO(
+			rs.getObject("bucket_start", LocalDateTime.class),
+			rs.getString("status") != null ? Order.OrderStatus.valueOf(rs.getString("status")) : null,
+			rs.getLong("order_count"),
+			rs.getBigDecimal("revenue"));
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public OrderRevenueRollupRepository(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Recomputes the given buckets, deleting those that no longer have orders. Buckets of
+	 * a coarser granularity must be rebuilt after the finer buckets they are summed from.
+	 */
+	public void rebuild(RevenueGranularity granularity, Collection<LocalDateTime> bucketStarts) {
+		if (bucketStarts.isEmpty()) {
+			return;
+		}
+		Timestamp[] starts = bucketStarts.stream().map(Timestamp::valueOf).toArray(Timestamp[]::new);
+		jdbcTemplate.update(DELETE_SQL, ps -> {
+			ps.setString(1, granularity.name());
+			ps.setArray(2, ps.getConnection().createArrayOf("timestamp", starts));
+		});
+		RevenueGranularity source = granularity.getSource();
+		if (source == null) {
+			jdbcTemplate.update(INSERT_FROM_ORDERS_SQL, ps -> {
+				ps.setString(1, granularity.name());
+				ps.setArray(2, ps.getConnection().createArrayOf("timestamp", starts));
+				ps.setString(3, granularity.getInterval());
+			});
+		} else {
+			jdbcTemplate.update(INSERT_FROM_ROLLUP_SQL, ps -> {
+				ps.setString(1, granularity.name());
+				ps.setArray(2, ps.getConnection().createArrayOf("timestamp", starts));
+				ps.setString(3, source.name());
+				ps.setString(4, granularity.getInterval());
+			});
+		}
+	}
+
+	/**
+	 * Non-empty buckets in [from, to), in time order. Without a status each bucket is the
+	 * total over all statuses.
+	 */
+	public List<RevenueBucketDTO> find(RevenueGranularity granularity, LocalDateTime from, LocalDateTime to,
+			Order.OrderStatus status) {
+		if (status == null) {
+			return jdbcTemplate.query(SELECT_TOTALS_SQL, BUCKET_MAPPER, granularity.name(), Timestamp.valueOf(from),
+					Timestamp.valueOf(to));
+		}
+		return jdbcTemplate.query(SELECT_BY_STATUS_SQL, BUCKET_MAPPER, granularity.name(), Timestamp.valueOf(from),
+				Timestamp.valueOf(to), status.name());
+	}
+
+	/**
+	 * Waits for the outbox relay lock, which the relay holds while it rebuilds buckets.
+	 * Held until the caller's transaction ends, so a backfill chunk and a relay batch never
+	 * rebuild the same bucket concurrently.
+	 */
+	public void lockAgainstRelay() {
+		jdbcTemplate.query("SELECT pg_advisory_xact_lock(?)", rs -> null, OrderOutboxRelay.RELAY_LOCK_KEY);
+	}
+
+	public LocalDateTime findOldestOrderTime() {
+		return jdbcTemplate.queryForObject("SELECT min(created_at) FROM orders", LocalDateTime.class);
+	}
+
+	public BackfillState findBackfillState() {
+		return jdbcTemplate.queryForObject(
+				"SELECT backfilled_through, completed_at IS NOT NULL AS completed FROM order_revenue_rollup_state WHERE id = 1",
+				(rs, rowNum) -> new BackfillState(rs.getObject("backfilled_through", LocalDateTime.class),
+						rs.getBoolean("completed")));
+	}
+
+	public void saveBackfillProgress(LocalDateTime backfilledThrough) {
+		jdbcTemplate.update("UPDATE order_revenue_rollup_state SET backfilled_through = ? WHERE id = 1",
+				Timestamp.valueOf(backfilledThrough));
+	}
+
+	public void markBackfillCompleted() {
+		jdbcTemplate.update("UPDATE order_revenue_rollup_state SET completed_at = now() WHERE id = 1");
+	}
+
+	public void resetBackfill() {
+		jdbcTemplate.update(
+				"UPDATE order_revenue_rollup_state SET backfilled_through = NULL, completed_at = NULL WHERE id = 1");
+	}
+
+	/**
+	 * How far the backfill got. Days before backfilledThrough are built.
+	 */
+	public record BackfillState(LocalDateTime backfilledThrough, boolean completed) {
+	}
+}
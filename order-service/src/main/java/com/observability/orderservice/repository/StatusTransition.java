@@ -0,0 +1,15 @@
+package com.observability.orderservice.repository;
+
+import com.observability.orderservice.model.Order;
+
+/**
+ * Outcome of a conditional status update. previousStatus and previousVersion describe the
+ * row as it was locked. order is the updated row, or null when the guard rejected the
+ * transition.
+ */
+public record StatusTransition(Order.OrderStatus previousStatus, long previousVersion, Order order) {
+
+	public boolean applied() {
+		return order != null;
+	}
+}
@@ -0,0 +1,96 @@
+package com.observability.orderservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.observability.orderservice.dto.OrderDTO;
+import com.observability.orderservice.event.OrderChangeEvent;
+import com.observability.orderservice.event.OrderOutbox;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache of orders by id, in front of GET /api/orders/{id}.
+ * Concurrent misses for one id share a single load. Writers call {@link #refresh}
+ * after their transaction commits. The refresh runs under the same per-key lock as a
+ * load, so a load that read the row before the commit cannot overwrite the new value.
+ * The TTL bounds staleness from writes made by other instances.
+ */
+@Component
+public class OrderCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(OrderCache.class);
+
+	private final OrderOutbox outbox;
+	private final boolean enabled;
+	private final Cache<Long, OrderDTO> cache;
+	private final Timer loadTimer;
+
+	public OrderCache(OrderOutbox outbox, @Value("${order.cache.enabled:true}") boolean enabled,
+			@Value("${order.cache.maximum-size:10000}") long maximumSize,
+			@Value("${order.cache.ttl:10m}") Duration ttl, MeterRegistry meterRegistry) {
+		this.outbox = outbox;
+		this.enabled = enabled;
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(ttl)
+				.recordStats()
+				.build();
+		this.loadTimer = Timer.builder("order.cache.load")
+				.description("Time to load an order into the cache on a miss")
+				.publishPercentileHistogram()
+				.register(meterRegistry);
+		CaffeineCacheMetrics.monitor(meterRegistry, cache, "orders");
+		logger.info("Order cache enabled={}, maximumSize={}, ttl={}", enabled, maximumSize, ttl);
+	}
+
+	/**
+	 * Returns the cached order, or loads it once for all concurrent callers. A loader
+	 * result of null (order not found) is not cached.
+	 */
+	public Optional<OrderDTO> get(Long id, Function<Long, OrderDTO> loader) {
+		if (!enabled) {
+			return Optional.ofNullable(loader.apply(id));
+		}
+		return Optional.ofNullable(cache.get(id, key -> loadTimer.record(() -> loader.apply(key))));
+	}
+
+	/**
+	 * Stores a committed order. An entry with a higher version is kept, so two writers
+	 * finishing out of order leave the newest value.
+	 */
+	public void refresh(OrderDTO order) {
+		if (!enabled) {
+			return;
+		}
+		cache.asMap().compute(order.getId(), (id, cached) -> cached == null || cached.getVersion() == null
+				|| order.getVersion() == null || cached.getVersion() <= order.getVersion()
+				? order
+				: cached);
+	}
+
+	public void invalidate(Long id) {
+		if (enabled) {
+			cache.invalidate(id);
+		}
+	}
+
+	/**
+	 * Drops entries changed by other instances. Local writes already refreshed theirs.
+	 */
+	@EventListener
+	public void onOrderChange(OrderChangeEvent event) {
+		if (!outbox.getInstanceId().equals(event.origin())) {
+			invalidate(event.orderId());
+		}
+	}
+}
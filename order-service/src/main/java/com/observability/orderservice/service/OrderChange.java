@@ -0,0 +1,22 @@
+package com.observability.orderservice.service;
+
+import com.observability.orderservice.model.Order;
+
+import java.math.BigDecimal;
+
+/**
+ * An order after a write, together with the status and total it had before the write.
+ */
+record OrderChange(Order order, Order.OrderStatus previousStatus, BigDecimal previousTotalAmount) {
+
+	static Builder from(Order before) {
+		return new Builder(before.getStatus(), before.getTotalAmount());
+	}
+
+	record Builder(Order.OrderStatus previousStatus, BigDecimal previousTotalAmount) {
+
+		OrderChange to(Order after) {
+			return new OrderChange(after, previousStatus, previousTotalAmount);
+		}
+	}
+}
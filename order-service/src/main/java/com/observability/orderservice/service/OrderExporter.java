@@ -0,0 +1,206 @@
+package com.observability.orderservice.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.observability.orderservice.dto.OrderDTO;
+import com.observability.orderservice.dto.OrderFilter;
+import com.observability.orderservice.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streams orders from a database cursor to an output stream as NDJSON or CSV. Rows are
+ * written as they are fetched and flushed every {@value #CHUNK_SIZE} rows, so memory
+ * stays flat whatever the result size. The export holds one connection for its whole
+ * duration.
+ */
+@Component
+public class OrderExporter {
+
+	private static final Logger logger = LoggerFactory.getLogger(OrderExporter.class);
+
+	// Rows per database round trip and per flush to the client
+	public static final int CHUNK_SIZE = 1000;
+
+	private static final String CSV_HEADER = "id,userId,productName,quantity,price,totalAmount,status,createdAt,"
+			+ "updatedAt,shippingAddress,version";
+
+	public enum Format {
+		NDJSON("application/x-ndjson", "ndjson"), CSV("text/csv", "csv");
+
+		private final String contentType;
+		private final String extension;
+
+		Format(String contentType, String extension) {
+			this.contentType = contentType;
+			this.extension = extension;
+		}
+
+		public String getContentType() {
+			return contentType;
+		}
+
+		public String getExtension() {
+			return extension;
+		}
+	}
+
+	private final OrderRepository orderRepository;
+	private final ObjectMapper objectMapper;
+	private final ObjectWriter rowWriter;
+	private final TransactionTemplate readOnlyTransaction;
+	private final MeterRegistry meterRegistry;
+	private final Counter exportedRowsCounter;
+
+	public OrderExporter(OrderRepository orderRepository, ObjectMapper objectMapper,
+			PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+		this.orderRepository = orderRepository;
+		this.objectMapper = objectMapper;
+		// Flushed every CHUNK_SIZE rows instead of once per row
+		this.rowWriter = objectMapper.writerFor(OrderDTO.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+		this.readOnlyTransaction.setReadOnly(true);
+		this.meterRegistry = meterRegistry;
+		this.exportedRowsCounter = Counter.builder("order.export.rows")
+				.description("Orders written by the streaming export")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Writes every order matching the filter and returns the number of rows written.
+	 */
+	public long export(OrderFilter filter, Format format, OutputStream out) throws IOException {
+		Timer.Sample sample = Timer.start(meterRegistry);
+		RowWriter writer = format == Format.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(out);
+		long[] rows = { 0 };
+		try {
+			writer.begin();
+			readOnlyTransaction.executeWithoutResult(tx -> orderRepository.streamOrders(filter, CHUNK_SIZE, order -> {
+				try {
+					writer.write(order);
+					if (++rows[0] % CHUNK_SIZE == 0) {
+						writer.flush();
+					}
+				} catch (IOException e) {
+					// Usually the client went away; abort the query instead of reading on
+					throw new UncheckedIOException(e);
+				}
+			}));
+			writer.flush();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+			exportedRowsCounter.increment(rows[0]);
+			sample.stop(Timer.builder("order.export.duration")
+					.description("Time to stream an order export")
+					.tag("format", format.name().toLowerCase())
+					.register(meterRegistry));
+		}
+		logger.info("Exported {} orders as {}", rows[0], format);
+		return rows[0];
+	}
+
+	private interface RowWriter {
+
+		default void begin() throws IOException {
+		}
+
+		void write(OrderDTO order) throws IOException;
+
+		void flush() throws IOException;
+	}
+
+	private final class NdjsonRowWriter implements RowWriter {
+
+		private final JsonGenerator generator;
+
+		NdjsonRowWriter(OutputStream out) throws IOException {
+			this.generator = objectMapper.getFactory().createGenerator(out);
+			// The servlet container owns the response stream
+			this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		}
+
+		@Override
+		public void write(OrderDTO order) throws IOException {
+			rowWriter.writeValue(generator, order);
+			generator.writeRaw('\n');
+		}
+
+		@Override
+		public void flush() throws IOException {
+			generator.flush();
+		}
+	}
+
+	private static final class CsvRowWriter implements RowWriter {
+
+		private final Writer writer;
+
+		CsvRowWriter(OutputStream out) {
+			this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		}
+
+		@Override
+		public void begin() throws IOException {
+			writer.write(CSV_HEADER);
+			writer.write('\n');
+		}
+
+		@Override
+		public void write(OrderDTO order) throws IOException {
+			writer.write(String.valueOf(order.getId()));
+			writer.write(',');
+			writer.write(String.valueOf(order.getUserId()));
+			writer.write(',');
+			writeQuoted(order.getProductName());
+			writer.write(',');
+			writer.write(String.valueOf(order.getQuantity()));
+			writer.write(',');
+			writer.write(order.getPrice().toPlainString());
+			writer.write(',');
+			writer.write(order.getTotalAmount().toPlainString());
+			writer.write(',');
+			writer.write(order.getStatus().name());
+			writer.write(',');
+			writer.write(String.valueOf(order.getCreatedAt()));
+			writer.write(',');
+			writer.write(order.getUpdatedAt() != null ? order.getUpdatedAt().toString() : "");
+			writer.write(',');
+			writeQuoted(order.getShippingAddress());
+			writer.write(',');
+			writer.write(String.valueOf(order.getVersion()));
+			writer.write('\n');
+		}
+
+		@Override
+		public void flush() throws IOException {
+			writer.flush();
+		}
+
+		// RFC 4180: quote every free-text field and double embedded quotes
+		private void writeQuoted(String value) throws IOException {
+			if (value == null) {
+				return;
+			}
+			writer.write('"');
+			writer.write(value.replace("\"", "\"\""));
+			writer.write('"');
+		}
+	}
+}
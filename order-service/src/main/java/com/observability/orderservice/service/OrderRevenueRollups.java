@@ -0,0 +1,202 @@
+package com.observability.orderservice.service;
+
+import com.observability.orderservice.dto.RevenueBucketDTO;
+import com.observability.orderservice.dto.RevenueGranularity;
+import com.observability.orderservice.event.OrderChangeBatchListener;
+import com.observability.orderservice.event.OrderChangeEvent;
+import com.observability.orderservice.model.Order;
+import com.observability.orderservice.repository.OrderRevenueRollupRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Order counts and revenue per minute, hour and day, by the order's creation time and
+ * current status. The outbox relay hands every claimed batch to onBatch, which rebuilds
+ * the minute buckets the batch touched from the orders table and then the hour and day
+ * buckets above them from the finer rollup rows. The backfill job builds the buckets for
+ * orders that existed before the rollup, one day per transaction, and resumes after a
+ * restart.
+ */
+@Component
+public class OrderRevenueRollups implements OrderChangeBatchListener {
+
+	private static final Logger logger = LoggerFactory.getLogger(OrderRevenueRollups.class);
+
+	private final OrderRevenueRollupRepository rollupRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final boolean enabled;
+	private final int maxBuckets;
+	private final AtomicBoolean backfilling = new AtomicBoolean();
+	private final Timer relayRebuildTimer;
+	private final Timer backfillDayTimer;
+	private final Counter backfilledDaysCounter;
+
+	public OrderRevenueRollups(OrderRevenueRollupRepository rollupRepository,
+			PlatformTransactionManager transactionManager,
+			@Value("${order.rollup.enabled:true}") boolean enabled,
+			@Value("${order.rollup.query.max-buckets:5000}") int maxBuckets, MeterRegistry meterRegistry) {
+		this.rollupRepository = rollupRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.enabled = enabled;
+		this.maxBuckets = maxBuckets;
+		this.relayRebuildTimer = Timer.builder("order.rollup.rebuild")
+				.description("Time to rebuild a set of revenue rollup buckets")
+				.tag("source", "relay")
+				.register(meterRegistry);
+		this.backfillDayTimer = Timer.builder("order.rollup.rebuild")
+				.description("Time to rebuild a set of revenue rollup buckets")
+				.tag("source", "backfill")
+				.register(meterRegistry);
+		this.backfilledDaysCounter = Counter.builder("order.rollup.backfill.days")
+				.description("Days of orders built into the revenue rollup by the backfill")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Runs inside the relay transaction, after the relay lock is taken.
+	 */
+	@Override
+	public void onBatch(List<OrderChangeEvent> events) {
+		if (!enabled) {
+			return;
+		}
+		Set<LocalDateTime> minutes = new TreeSet<>();
+		for (OrderChangeEvent event : events) {
+			// Events written before the rollup existed carry no creation time; the
+			// backfill covers those orders
+			if (event.orderCreatedAt() != null && changesTotals(event)) {
+				minutes.add(RevenueGranularity.MINUTE.truncate(event.orderCreatedAt()));
+			}
+		}
+		if (!minutes.isEmpty()) {
+			relayRebuildTimer.record(() -> rebuild(minutes));
+		}
+	}
+
+	private static boolean changesTotals(OrderChangeEvent event) {
+		return event.type() != OrderChangeEvent.Type.UPDATED
+				|| !Objects.equals(event.totalAmount(), event.previousTotalAmount());
+	}
+
+	/**
+	 * Rebuilds the given minute buckets and every hour and day bucket containing them.
+	 */
+	private void rebuild(Set<LocalDateTime> minutes) {
+		Set<LocalDateTime> buckets = minutes;
+		for (RevenueGranularity granularity : RevenueGranularity.values()) {
+			Set<LocalDateTime> starts = new TreeSet<>();
+			buckets.forEach(start -> starts.add(granularity.truncate(start)));
+			rollupRepository.rebuild(granularity, starts);
+			buckets = starts;
+		}
+	}
+
+	/**
+	 * Non-empty buckets overlapping [from, to). Ranges longer than the configured number
+	 * of buckets are rejected; ask for a coarser granularity instead.
+	 */
+	public List<RevenueBucketDTO> getRevenue(RevenueGranularity granularity, LocalDateTime from, LocalDateTime to,
+			Order.OrderStatus status) {
+		if (!from.isBefore(to)) {
+			throw new IllegalArgumentException("from must be before to");
+		}
+		long buckets = granularity.bucketsBetween(from, to);
+		if (buckets > maxBuckets) {
+			throw new IllegalArgumentException("Range spans " + buckets + " " + granularity.name().toLowerCase()
+					+ " buckets, the limit is " + maxBuckets);
+		}
+		return rollupRepository.find(granularity, granularity.truncate(from), to, status);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void backfillIfIncomplete() {
+		if (!enabled) {
+			return;
+		}
+		try {
+			if (!rollupRepository.findBackfillState().completed()) {
+				startBackfill(false);
+			}
+		} catch (Exception e) {
+			logger.warn("Could not check the revenue rollup backfill: {}", e.getMessage());
+		}
+	}
+
+	/**
+	 * Starts the backfill on a background thread. With fromScratch the rollup is rebuilt
+	 * from the oldest order, otherwise the backfill resumes where it last stopped. Returns
+	 * false when a backfill is already running in this instance.
+	 */
+	public boolean startBackfill(boolean fromScratch) {
+		if (!enabled) {
+			throw new IllegalStateException("Revenue rollup is disabled");
+		}
+		if (!backfilling.compareAndSet(false, true)) {
+			return false;
+		}
+		Thread thread = new Thread(() -> {
+			try {
+				if (fromScratch) {
+					rollupRepository.resetBackfill();
+				}
+				backfill();
+			} catch (Exception e) {
+				logger.error("Revenue rollup backfill failed, it resumes on the next start", e);
+			} finally {
+				backfilling.set(false);
+			}
+		}, "order-rollup-backfill");
+		thread.setDaemon(true);
+		thread.start();
+		return true;
+	}
+
+	private void backfill() {
+		LocalDateTime oldest = rollupRepository.findOldestOrderTime();
+		LocalDateTime day = rollupRepository.findBackfillState().backfilledThrough();
+		if (day == null && oldest != null) {
+			day = RevenueGranularity.DAY.truncate(oldest);
+		}
+		// Orders created after this chunk commits reach the rollup through the relay
+		LocalDateTime end = RevenueGranularity.DAY.truncate(LocalDateTime.now()).plusDays(1);
+		logger.info("Revenue rollup backfill starting at {}", day);
+
+		while (day != null && day.isBefore(end)) {
+			LocalDateTime next = day.plusDays(1);
+			Set<LocalDateTime> minutes = minutesOf(day, next);
+			backfillDayTimer.record(() -> transactionTemplate.executeWithoutResult(tx -> {
+				rollupRepository.lockAgainstRelay();
+				rebuild(minutes);
+				rollupRepository.saveBackfillProgress(next);
+			}));
+			backfilledDaysCounter.increment();
+			day = next;
+		}
+		rollupRepository.markBackfillCompleted();
+		logger.info("Revenue rollup backfill completed");
+	}
+
+	private static Set<LocalDateTime> minutesOf(LocalDateTime from, LocalDateTime to) {
+		Set<LocalDateTime> minutes = new TreeSet<>();
+		for (LocalDateTime minute = from; minute.isBefore(to); minute = minute.plusMinutes(1)) {
+			minutes.add(minute);
+		}
+		return minutes;
+	}
+}
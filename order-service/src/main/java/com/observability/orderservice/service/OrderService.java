@@ -1,21 +1,43 @@
 package com.observability.orderservice.service;
 
 import com.observability.orderservice.client.UserServiceClient;
+import com.observability.orderservice.dto.BatchOrderResultDTO;
 import com.observability.orderservice.dto.OrderDTO;
+import com.observability.orderservice.dto.OrderPageDTO;
+import com.observability.orderservice.event.OrderChangeEvent;
+import com.observability.orderservice.event.OrderOutbox;
 import com.observability.orderservice.model.Order;
 import com.observability.orderservice.repository.OrderRepository;
+import com.observability.orderservice.repository.StatusTransition;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,6 +45,10 @@ public class OrderService {
 
 	private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
 
+	public static final int DEFAULT_PAGE_SIZE = 50;
+	public static final int MAX_PAGE_SIZE = 500;
+	public static final int MAX_BATCH_SIZE = 1000;
+
 	private final OrderRepository orderRepository;
 	private final UserServiceClient userServiceClient;
 	private final Counter orderCreatedCounter;
@@ -30,12 +56,28 @@ public class OrderService {
 	private final Counter orderCancelledCounter;
 	private final Counter orderCompletedCounter;
 	private final Timer orderOperationTimer;
+	private final TransactionTemplate transactionTemplate;
+	private final MeterRegistry meterRegistry;
+	private final Validator validator;
+	private final OrderStatsSnapshot statsSnapshot;
+	private final OrderCache orderCache;
+	private final OrderOutbox outbox;
+	private final Scheduler databaseScheduler;
 
 	@Autowired
 	public OrderService(OrderRepository orderRepository, UserServiceClient userServiceClient,
-			MeterRegistry meterRegistry) {
+			MeterRegistry meterRegistry, PlatformTransactionManager transactionManager, Validator validator,
+			OrderStatsSnapshot statsSnapshot, OrderCache orderCache, OrderOutbox outbox,
+			Scheduler orderDatabaseScheduler) {
 		this.orderRepository = orderRepository;
 		this.userServiceClient = userServiceClient;
+		this.validator = validator;
+		this.statsSnapshot = statsSnapshot;
+		this.orderCache = orderCache;
+		this.outbox = outbox;
+		this.databaseScheduler = orderDatabaseScheduler;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.meterRegistry = meterRegistry;
 		this.orderCreatedCounter = Counter.builder("order.created").description("Total number of orders created")
 				.register(meterRegistry);
 		this.orderUpdatedCounter = Counter.builder("order.updated").description("Total number of orders updated")
@@ -48,79 +90,208 @@ public class OrderService {
 				.description("Time taken for order operations").register(meterRegistry);
 	}
 
-	@Transactional
 	public OrderDTO createOrder(OrderDTO orderDTO) throws Exception {
 		return orderOperationTimer.recordCallable(() -> {
 			logger.info("Creating order for user ID: {}", orderDTO.getUserId());
 
-			// Validate user exists
+			// Validate user exists before opening the transaction, so a slow user-service
+			// never holds a pooled connection
 			if (!userServiceClient.userExists(orderDTO.getUserId())) {
 				throw new IllegalArgumentException(
 					"User not found with ID: " + orderDTO.getUserId() +
 					". Create the user first via the Users section or POST /api/users.");
 			}
 
-			// Calculate total amount
-			BigDecimal totalAmount = orderDTO.getPrice().multiply(BigDecimal.valueOf(orderDTO.getQuantity()));
+			return persistNewOrder(orderDTO);
+		});
+	}
+
+	/**
+	 * Non-blocking order creation. The user check uses the async client, and the insert
+	 * runs on the database scheduler, which has one thread per pooled connection. No
+	 * request thread waits on either step.
+	 */
+	public Mono<OrderDTO> createOrderReactive(OrderDTO orderDTO) {
+		return Mono.defer(() -> {
+			logger.info("Creating order (reactive) for user ID: {}", orderDTO.getUserId());
+			Timer.Sample sample = Timer.start(meterRegistry);
+
+			return userServiceClient.userExistsAsync(orderDTO.getUserId())
+					.flatMap(exists -> {
+						if (!exists) {
+							return Mono.error(new IllegalArgumentException(
+									"User not found with ID: " + orderDTO.getUserId() +
+									". Create the user first via the Users section or POST /api/users."));
+						}
+						return Mono.fromCallable(() -> persistNewOrder(orderDTO)).subscribeOn(databaseScheduler);
+					})
+					.doFinally(signal -> sample.stop(orderOperationTimer));
+		});
+	}
+
+	private OrderDTO persistNewOrder(OrderDTO orderDTO) {
+		Order order = newOrder(orderDTO);
+		Order savedOrder = inTransaction("createOrder", tx -> {
+			Order saved = orderRepository.save(order);
+			outbox.append(OrderChangeEvent.created(saved));
+			return saved;
+		});
+		orderCreatedCounter.increment();
+		statsSnapshot.recordCreated(savedOrder.getStatus(), savedOrder.getTotalAmount());
+
+		logger.info("Order created successfully with ID: {}", savedOrder.getId());
+		return convertToDTO(savedOrder);
+	}
+
+	/**
+	 * Creates many orders at once. Every distinct userId is validated in one call to
+	 * user-service, and the accepted rows are inserted as one JDBC batch. Items that
+	 * fail validation are reported by index and do not stop the rest.
+	 */
+	public BatchOrderResultDTO createOrders(List<OrderDTO> orderDTOs) throws Exception {
+		return orderOperationTimer.recordCallable(() -> {
+			logger.info("Creating batch of {} orders", orderDTOs.size());
+
+			BatchOrderResultDTO.ItemResult[] results = new BatchOrderResultDTO.ItemResult[orderDTOs.size()];
+			Set<Long> userIds = new LinkedHashSet<>();
+			for (int i = 0; i < orderDTOs.size(); i++) {
+				OrderDTO orderDTO = orderDTOs.get(i);
+				if (orderDTO == null) {
+					results[i] = BatchOrderResultDTO.ItemResult.rejected(i, "Order is required");
+					continue;
+				}
+				Set<ConstraintViolation<OrderDTO>> violations = validator.validate(orderDTO);
+				if (!violations.isEmpty()) {
+					results[i] = BatchOrderResultDTO.ItemResult.rejected(i,
+							violations.iterator().next().getMessage());
+					continue;
+				}
+				userIds.add(orderDTO.getUserId());
+			}
 
-			Order order = new Order();
-			order.setUserId(orderDTO.getUserId());
-			order.setProductName(orderDTO.getProductName());
-			order.setQuantity(orderDTO.getQuantity());
-			order.setPrice(orderDTO.getPrice());
-			order.setTotalAmount(totalAmount);
-			order.setStatus(Order.OrderStatus.PENDING);
-			order.setShippingAddress(orderDTO.getShippingAddress());
+			// One round trip for all distinct users, outside the transaction
+			Map<Long, Boolean> existingUsers = userIds.isEmpty() ? Map.of() : userServiceClient.usersExist(userIds);
+
+			List<Integer> acceptedIndexes = new ArrayList<>();
+			List<Order> accepted = new ArrayList<>();
+			for (int i = 0; i < orderDTOs.size(); i++) {
+				if (results[i] != null) {
+					continue;
+				}
+				OrderDTO orderDTO = orderDTOs.get(i);
+				if (!Boolean.TRUE.equals(existingUsers.get(orderDTO.getUserId()))) {
+					results[i] = BatchOrderResultDTO.ItemResult.rejected(i,
+							"User not found with ID: " + orderDTO.getUserId());
+					continue;
+				}
+				acceptedIndexes.add(i);
+				accepted.add(newOrder(orderDTO));
+			}
 
-			Order savedOrder = orderRepository.save(order);
-			orderCreatedCounter.increment();
+			List<Order> savedOrders = inTransaction("createOrders", tx -> {
+				List<Order> inserted = orderRepository.insertAll(accepted);
+				outbox.append(inserted.stream().map(OrderChangeEvent::created).toList());
+				return inserted;
+			});
+			for (int i = 0; i < savedOrders.size(); i++) {
+				Order savedOrder = savedOrders.get(i);
+				results[acceptedIndexes.get(i)] = BatchOrderResultDTO.ItemResult.created(acceptedIndexes.get(i),
+						convertToDTO(savedOrder));
+				statsSnapshot.recordCreated(savedOrder.getStatus(), savedOrder.getTotalAmount());
+			}
+			orderCreatedCounter.increment(savedOrders.size());
 
-			logger.info("Order created successfully with ID: {}", savedOrder.getId());
-			return convertToDTO(savedOrder);
+			BatchOrderResultDTO result = new BatchOrderResultDTO(List.of(results));
+			logger.info("Batch created {} orders, rejected {}", result.getCreated(), result.getRejected());
+			return result;
 		});
 	}
 
-	public List<OrderDTO> getAllOrders() throws Exception {
+	/**
+	 * Returns one page of orders, newest first, using a keyset cursor on (createdAt, id).
+	 * Cost depends on the page size only, not on how many orders precede the cursor.
+	 */
+	@Transactional(readOnly = true)
+	public OrderPageDTO getOrdersPage(String cursor, Integer size) throws Exception {
 		return orderOperationTimer.recordCallable(() -> {
-			logger.debug("Fetching all orders");
-			return orderRepository.findAll().stream().map(this::convertToDTO).collect(Collectors.toList());
+			int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+			logger.debug("Fetching orders page (cursor={}, size={})", cursor, pageSize);
+
+			// Ask for one extra row to learn whether another page exists
+			PageRequest limit = PageRequest.of(0, pageSize + 1);
+			List<Order> rows;
+			if (cursor == null || cursor.isBlank()) {
+				rows = orderRepository.findFirstPage(limit);
+			} else {
+				Order position = decodeCursor(cursor);
+				rows = orderRepository.findPageAfter(position.getCreatedAt(), position.getId(), limit);
+			}
+
+			boolean hasMore = rows.size() > pageSize;
+			List<Order> page = hasMore ? rows.subList(0, pageSize) : rows;
+			String nextCursor = hasMore ? encodeCursor(page.get(page.size() - 1)) : null;
+			return new OrderPageDTO(page.stream().map(OrderService::convertToDTO).collect(Collectors.toList()), nextCursor,
+					hasMore);
 		});
 	}
 
 	public Optional<OrderDTO> getOrderById(Long id) throws Exception {
 		return orderOperationTimer.recordCallable(() -> {
 			logger.debug("Fetching order by ID: {}", id);
-			return orderRepository.findById(id).map(this::convertToDTO);
+			return orderCache.get(id, key -> orderRepository.findDtoById(key).orElse(null));
 		});
 	}
 
+	@Transactional(readOnly = true)
 	public List<OrderDTO> getOrdersByUserId(Long userId) throws Exception {
 		return orderOperationTimer.recordCallable(() -> {
 			logger.debug("Fetching orders for user ID: {}", userId);
-			return orderRepository.findByUserId(userId).stream().map(this::convertToDTO).collect(Collectors.toList());
+			return orderRepository.findDtosByUserId(userId);
 		});
 	}
 
+	@Transactional(readOnly = true)
 	public List<OrderDTO> getOrdersByStatus(Order.OrderStatus status) throws Exception {
 		return orderOperationTimer.recordCallable(() -> {
 			logger.debug("Fetching orders with status: {}", status);
-			return orderRepository.findByStatus(status).stream().map(this::convertToDTO).collect(Collectors.toList());
+			return orderRepository.findDtosByStatus(status);
 		});
 	}
 
-	@Transactional
 	public OrderDTO updateOrderStatus(Long id, Order.OrderStatus newStatus) throws Exception {
+		return updateOrderStatus(id, newStatus, null);
+	}
+
+	/**
+	 * Applies a status transition as one conditional UPDATE that checks the state machine
+	 * and, if given, the expected version against the locked row. There is no separate
+	 * read, so concurrent workers cannot overwrite each other's transitions.
+	 */
+	public OrderDTO updateOrderStatus(Long id, Order.OrderStatus newStatus, Long expectedVersion) throws Exception {
 		return orderOperationTimer.recordCallable(() -> {
 			logger.info("Updating order {} status to {}", id, newStatus);
 
-			Order order = orderRepository.findById(id)
-					.orElseThrow(() -> new IllegalArgumentException("Order not found with ID: " + id));
-
-			Order.OrderStatus oldStatus = order.getStatus();
-			order.setStatus(newStatus);
-
-			Order updatedOrder = orderRepository.save(order);
+			StatusTransition transition = inTransaction("updateOrderStatus", tx -> {
+				StatusTransition result = orderRepository.transitionStatus(id, newStatus, expectedVersion);
+				if (result != null && result.applied()) {
+					outbox.append(OrderChangeEvent.statusChanged(result.order(), result.previousStatus()));
+				}
+				return result;
+			});
+			if (transition == null) {
+				throw new IllegalArgumentException("Order not found with ID: " + id);
+			}
+			if (!transition.applied()) {
+				if (expectedVersion != null && expectedVersion != transition.previousVersion()) {
+					throw new OptimisticLockingFailureException("Order " + id + " is at version "
+							+ transition.previousVersion() + ", expected " + expectedVersion);
+				}
+				throw new IllegalStateException("Order " + id + " cannot change from "
+						+ transition.previousStatus() + " to " + newStatus);
+			}
+			Order updatedOrder = transition.order();
 			orderUpdatedCounter.increment();
+			statsSnapshot.recordStatusChange(transition.previousStatus(), newStatus, updatedOrder.getTotalAmount());
 
 			// Increment specific status counters
 			if (newStatus == Order.OrderStatus.CANCELLED) {
@@ -129,74 +300,141 @@ public class OrderService {
 				orderCompletedCounter.increment();
 			}
 
-			logger.info("Order {} status updated from {} to {}", id, oldStatus, newStatus);
-			return convertToDTO(updatedOrder);
+			OrderDTO updated = convertToDTO(updatedOrder);
+			orderCache.refresh(updated);
+
+			logger.info("Order {} status updated from {} to {}", id, transition.previousStatus(), newStatus);
+			return updated;
 		});
 	}
 
-	@Transactional
 	public OrderDTO updateOrder(Long id, OrderDTO orderDTO) throws Exception {
 		return orderOperationTimer.recordCallable(() -> {
 			logger.info("Updating order with ID: {}", id);
 
-			Order order = orderRepository.findById(id)
+			Long currentUserId = orderRepository.findById(id)
+					.map(Order::getUserId)
 					.orElseThrow(() -> new IllegalArgumentException("Order not found with ID: " + id));
 
-			// Validate user exists if userId is being changed
-			if (!order.getUserId().equals(orderDTO.getUserId())
+			// Validate user exists if userId is being changed, outside the transaction
+			if (!currentUserId.equals(orderDTO.getUserId())
 					&& !userServiceClient.userExists(orderDTO.getUserId())) {
 				throw new IllegalArgumentException("User not found with ID: " + orderDTO.getUserId());
 			}
 
-			order.setUserId(orderDTO.getUserId());
-			order.setProductName(orderDTO.getProductName());
-			order.setQuantity(orderDTO.getQuantity());
-			order.setPrice(orderDTO.getPrice());
+			OrderChange change = inTransaction("updateOrder", tx -> {
+				Order order = orderRepository.findById(id)
+						.orElseThrow(() -> new IllegalArgumentException("Order not found with ID: " + id));
 
-			// Recalculate total amount
-			BigDecimal totalAmount = orderDTO.getPrice().multiply(BigDecimal.valueOf(orderDTO.getQuantity()));
-			order.setTotalAmount(totalAmount);
+				if (orderDTO.getVersion() != null && !orderDTO.getVersion().equals(order.getVersion())) {
+					throw new OptimisticLockingFailureException("Order " + id + " is at version "
+							+ order.getVersion() + ", expected " + orderDTO.getVersion());
+				}
 
-			order.setShippingAddress(orderDTO.getShippingAddress());
+				OrderChange.Builder builder = OrderChange.from(order);
 
-			Order updatedOrder = orderRepository.save(order);
+				order.setUserId(orderDTO.getUserId());
+				order.setProductName(orderDTO.getProductName());
+				order.setQuantity(orderDTO.getQuantity());
+				order.setPrice(orderDTO.getPrice());
+
+				// Recalculate total amount
+				order.setTotalAmount(calculateTotal(orderDTO.getPrice(), orderDTO.getQuantity()));
+
+				order.setShippingAddress(orderDTO.getShippingAddress());
+
+				Order saved = orderRepository.save(order);
+				outbox.append(OrderChangeEvent.updated(saved, builder.previousTotalAmount()));
+				return builder.to(saved);
+			});
+			Order updatedOrder = change.order();
 			orderUpdatedCounter.increment();
+			statsSnapshot.recordAmountChange(updatedOrder.getStatus(), change.previousTotalAmount(),
+					updatedOrder.getTotalAmount());
+
+			OrderDTO updated = convertToDTO(updatedOrder);
+			orderCache.refresh(updated);
 
 			logger.info("Order updated successfully with ID: {}", updatedOrder.getId());
-			return convertToDTO(updatedOrder);
+			return updated;
 		});
 	}
 
-	@Transactional
-	public void cancelOrder(Long id) {
-		orderOperationTimer.record(() -> {
-			logger.info("Cancelling order with ID: {}", id);
-			try {
-				updateOrderStatus(id, Order.OrderStatus.CANCELLED);
-			} catch (Exception e) {
-				// TODO Auto-generated catch block
-				e.printStackTrace();
-			}
-		});
+	public void cancelOrder(Long id) throws Exception {
+		logger.info("Cancelling order with ID: {}", id);
+		updateOrderStatus(id, Order.OrderStatus.CANCELLED);
+	}
+
+	/**
+	 * Counts and revenue per status. Served from the in-memory snapshot when it is
+	 * enabled and loaded, otherwise from one GROUP BY query.
+	 */
+	public OrderStatsSnapshot.Stats getOrderStats() {
+		OrderStatsSnapshot.Stats stats = statsSnapshot.current();
+		return stats != null ? stats : statsSnapshot.loadFromDatabase();
+	}
+
+	/**
+	 * Entity tag for the whole orders collection, cheap enough to check before every list
+	 * read. See {@link OrderOutbox#changeVersion()}.
+	 */
+	public String getOrdersETag() {
+		return "orders-" + outbox.changeVersion();
+	}
+
+	private static Order newOrder(OrderDTO orderDTO) {
+		Order order = new Order();
+		order.setUserId(orderDTO.getUserId());
+		order.setProductName(orderDTO.getProductName());
+		order.setQuantity(orderDTO.getQuantity());
+		order.setPrice(orderDTO.getPrice());
+		order.setTotalAmount(calculateTotal(orderDTO.getPrice(), orderDTO.getQuantity()));
+		order.setStatus(Order.OrderStatus.PENDING);
+		order.setShippingAddress(orderDTO.getShippingAddress());
+		return order;
+	}
+
+	public static BigDecimal calculateTotal(BigDecimal price, Integer quantity) {
+		return price.multiply(BigDecimal.valueOf(quantity));
 	}
 
-	public long getOrderCountByStatus(Order.OrderStatus status) {
-		return orderRepository.countByStatus(status);
+	/**
+	 * Runs the callback in a short transaction and records how long it held a database
+	 * connection, tagged by operation, as order.db.connection.hold.
+	 */
+	private <T> T inTransaction(String operation, TransactionCallback<T> callback) {
+		Timer.Sample sample = Timer.start(meterRegistry);
+		try {
+			return transactionTemplate.execute(callback);
+		} finally {
+			sample.stop(Timer.builder("order.db.connection.hold")
+					.description("Time a database connection is held per order operation")
+					.tag("operation", operation)
+					.register(meterRegistry));
+		}
 	}
 
-	public BigDecimal getTotalRevenue() {
-		BigDecimal total = orderRepository.sumAllTotalAmount();
-		return total != null ? total : BigDecimal.ZERO;
+	private static String encodeCursor(Order order) {
+		String raw = order.getCreatedAt() + "|" + order.getId();
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
 	}
 
-	public BigDecimal getRevenueByStatus(Order.OrderStatus status) {
-		BigDecimal total = orderRepository.sumTotalAmountByStatus(status);
-		return total != null ? total : BigDecimal.ZERO;
+	private static Order decodeCursor(String cursor) {
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			int separator = raw.lastIndexOf('|');
+			Order position = new Order();
+			position.setCreatedAt(LocalDateTime.parse(raw.substring(0, separator)));
+			position.setId(Long.parseLong(raw.substring(separator + 1)));
+			return position;
+		} catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+			throw new IllegalArgumentException("Invalid cursor: " + cursor);
+		}
 	}
 
-	private OrderDTO convertToDTO(Order order) {
+	public static OrderDTO convertToDTO(Order order) {
 		return new OrderDTO(order.getId(), order.getUserId(), order.getProductName(), order.getQuantity(),
 				order.getPrice(), order.getTotalAmount(), order.getStatus(), order.getCreatedAt(), order.getUpdatedAt(),
-				order.getShippingAddress());
+				order.getShippingAddress(), order.getVersion());
 	}
 }
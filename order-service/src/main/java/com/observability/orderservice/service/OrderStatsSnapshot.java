@@ -0,0 +1,205 @@
+package com.observability.orderservice.service;
+
+import com.observability.orderservice.dto.OrderStatusTotals;
+import com.observability.orderservice.event.OrderChangeEvent;
+import com.observability.orderservice.event.OrderOutbox;
+import com.observability.orderservice.model.Order;
+import com.observability.orderservice.repository.OrderRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory order counts and revenue per status. OrderService applies every committed
+ * write to it. A scheduled job replaces it with a fresh GROUP BY aggregate, which corrects
+ * drift from writes made by other instances.
+ */
+@Component
+public class OrderStatsSnapshot {
+
+	private static final Logger logger = LoggerFactory.getLogger(OrderStatsSnapshot.class);
+
+	private final OrderRepository orderRepository;
+	private final OrderOutbox outbox;
+	private final boolean enabled;
+	private final AtomicReference<Stats> current = new AtomicReference<>();
+
+	public OrderStatsSnapshot(OrderRepository orderRepository, OrderOutbox outbox,
+			@Value("${order.stats.snapshot.enabled:true}") boolean enabled, MeterRegistry meterRegistry) {
+		this.orderRepository = orderRepository;
+		this.outbox = outbox;
+		this.enabled = enabled;
+		Gauge.builder("order.stats.snapshot.staleness", this, snapshot -> {
+			Stats stats = snapshot.current.get();
+			return stats == null ? Double.NaN : stats.staleness().toMillis() / 1000.0;
+		}).description("Seconds since the order stats snapshot was reconciled with the database")
+				.baseUnit("seconds").register(meterRegistry);
+	}
+
+	/**
+	 * Returns the snapshot, or null when it is disabled or not yet loaded.
+	 */
+	public Stats current() {
+		return enabled ? current.get() : null;
+	}
+
+	public Stats loadFromDatabase() {
+		return Stats.of(orderRepository.aggregateByStatus(), Instant.now());
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	@Scheduled(fixedDelayString = "${order.stats.snapshot.reconcile-interval-ms:30000}",
+			initialDelayString = "${order.stats.snapshot.reconcile-interval-ms:30000}")
+	public void reconcile() {
+		if (!enabled) {
+			return;
+		}
+		try {
+			Stats fresh = loadFromDatabase();
+			Stats previous = current.getAndSet(fresh);
+			if (previous != null && !previous.sameTotals(fresh)) {
+				logger.info("Order stats snapshot drifted from the database and was corrected");
+			}
+		} catch (Exception e) {
+			logger.warn("Could not reconcile order stats snapshot: {}", e.getMessage());
+		}
+	}
+
+	public void recordCreated(Order.OrderStatus status, BigDecimal amount) {
+		apply(stats -> stats.plus(status, 1, amount));
+	}
+
+	public void recordStatusChange(Order.OrderStatus from, Order.OrderStatus to, BigDecimal amount) {
+		if (from != to) {
+			apply(stats -> stats.plus(from, -1, amount.negate()).plus(to, 1, amount));
+		}
+	}
+
+	public void recordAmountChange(Order.OrderStatus status, BigDecimal previousAmount, BigDecimal newAmount) {
+		BigDecimal delta = newAmount.subtract(previousAmount);
+		if (delta.signum() != 0) {
+			apply(stats -> stats.plus(status, 0, delta));
+		}
+	}
+
+	/**
+	 * Applies changes made by other instances. Local writes were already recorded, and
+	 * changes missed while the feed was down are corrected by the next reconcile.
+	 */
+	@EventListener
+	public void onOrderChange(OrderChangeEvent event) {
+		if (outbox.getInstanceId().equals(event.origin())) {
+			return;
+		}
+		switch (event.type()) {
+			case CREATED -> recordCreated(event.status(), event.totalAmount());
+			case STATUS_CHANGED -> recordStatusChange(event.previousStatus(), event.status(), event.totalAmount());
+			case UPDATED -> recordAmountChange(event.status(), event.previousTotalAmount(), event.totalAmount());
+		}
+	}
+
+	private void apply(UnaryOperator<Stats> change) {
+		if (enabled) {
+			current.updateAndGet(stats -> stats == null ? null : change.apply(stats));
+		}
+	}
+
+	/**
+	 * Immutable counts and revenue per status, plus the time of the last reconciliation.
+	 */
+	public static final class Stats {
+
+		private final Map<Order.OrderStatus, Long> counts;
+		private final Map<Order.OrderStatus, BigDecimal> revenue;
+		private final Instant reconciledAt;
+
+		private Stats(Map<Order.OrderStatus, Long> counts, Map<Order.OrderStatus, BigDecimal> revenue,
+				Instant reconciledAt) {
+			this.counts = counts;
+			this.revenue = revenue;
+			this.reconciledAt = reconciledAt;
+		}
+
+		static Stats of(List<OrderStatusTotals> totals, Instant reconciledAt) {
+			Map<Order.OrderStatus, Long> counts = new EnumMap<>(Order.OrderStatus.class);
+			Map<Order.OrderStatus, BigDecimal> revenue = new EnumMap<>(Order.OrderStatus.class);
+			for (Order.OrderStatus status : Order.OrderStatus.values()) {
+				counts.put(status, 0L);
+				revenue.put(status, BigDecimal.ZERO);
+			}
+			for (OrderStatusTotals row : totals) {
+				counts.put(row.getStatus(), row.getCount());
+				revenue.put(row.getStatus(), row.getRevenue());
+			}
+			return new Stats(counts, revenue, reconciledAt);
+		}
+
+		Stats plus(Order.OrderStatus status, long countDelta, BigDecimal revenueDelta) {
+			Map<Order.OrderStatus, Long> newCounts = new EnumMap<>(counts);
+			Map<Order.OrderStatus, BigDecimal> newRevenue = new EnumMap<>(revenue);
+			newCounts.merge(status, countDelta, Long::sum);
+			newRevenue.merge(status, revenueDelta, BigDecimal::add);
+			return new Stats(newCounts, newRevenue, reconciledAt);
+		}
+
+		boolean sameTotals(Stats other) {
+			if (!counts.equals(other.counts)) {
+				return false;
+			}
+			for (Order.OrderStatus status : Order.OrderStatus.values()) {
+				if (revenue.get(status).compareTo(other.revenue.get(status)) != 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		public long count(Order.OrderStatus status) {
+			return counts.get(status);
+		}
+
+		public BigDecimal revenue(Order.OrderStatus status) {
+			return revenue.get(status);
+		}
+
+		public BigDecimal totalRevenue() {
+			return revenue.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+		}
+
+		/**
+		 * Spells out the reconcile time and every count and revenue, so two snapshots share
+		 * a fingerprint only when they hold the same totals.
+		 */
+		public String fingerprint() {
+			StringBuilder fingerprint = new StringBuilder().append(reconciledAt.toEpochMilli());
+			for (Order.OrderStatus status : Order.OrderStatus.values()) {
+				fingerprint.append('-').append(counts.get(status))
+						.append('-').append(revenue.get(status).stripTrailingZeros().toPlainString());
+			}
+			return fingerprint.toString();
+		}
+
+		public Instant getReconciledAt() {
+			return reconciledAt;
+		}
+
+		public Duration staleness() {
+			return Duration.between(reconciledAt, Instant.now());
+		}
+	}
+}
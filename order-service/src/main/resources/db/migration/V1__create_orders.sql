@@ -0,0 +1,15 @@
+-- Orders table as previously generated by Hibernate DDL auto.
+-- Existing databases are baselined at this version and skip it.
+CREATE TABLE IF NOT EXISTS orders (
+    id               BIGSERIAL      PRIMARY KEY,
+    user_id          BIGINT         NOT NULL,
+    product_name     VARCHAR(255)   NOT NULL,
+    quantity         INTEGER        NOT NULL,
+    price            NUMERIC(10, 2) NOT NULL,
+    total_amount     NUMERIC(10, 2) NOT NULL,
+    status           VARCHAR(255)   NOT NULL
+        CHECK (status IN ('PENDING', 'PROCESSING', 'SHIPPED', 'DELIVERED', 'CANCELLED')),
+    created_at       TIMESTAMP(6)   NOT NULL,
+    updated_at       TIMESTAMP(6),
+    shipping_address VARCHAR(255)
+);
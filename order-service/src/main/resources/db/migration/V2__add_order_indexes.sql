@@ -0,0 +1,18 @@
+-- Access paths for OrderRepository. Built CONCURRENTLY so that writes continue while
+-- a large orders table is indexed; see the .conf file next to this script.
+
+-- findByUserId, newest orders of one user first
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_user_id_created_at
+    ON orders (user_id, created_at DESC);
+
+-- findByStatus and countByStatus
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_status_created_at
+    ON orders (status, created_at DESC);
+
+-- sumTotalAmountByStatus, sumAllTotalAmount and aggregateByStatus as index-only scans
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_status_total_amount
+    ON orders (status) INCLUDE (total_amount);
+
+-- Keyset pages of GET /api/orders/page
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_created_at_id
+    ON orders (created_at DESC, id DESC);
@@ -0,0 +1,2 @@
+-- Optimistic locking counter for Order (@Version), also bumped by status transitions
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
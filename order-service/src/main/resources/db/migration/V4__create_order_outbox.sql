@@ -0,0 +1,14 @@
+-- Order change events written in the same transaction as the change.
+-- OrderOutboxRelay deletes rows as it publishes them, in id order.
+CREATE TABLE IF NOT EXISTS order_outbox (
+    id                    BIGSERIAL      PRIMARY KEY,
+    event_type            VARCHAR(32)    NOT NULL,
+    order_id              BIGINT         NOT NULL,
+    user_id               BIGINT         NOT NULL,
+    status                VARCHAR(32)    NOT NULL,
+    previous_status       VARCHAR(32),
+    total_amount          NUMERIC(10, 2) NOT NULL,
+    previous_total_amount NUMERIC(10, 2),
+    occurred_at           TIMESTAMP(6)   NOT NULL,
+    origin                VARCHAR(64)    NOT NULL
+);
@@ -0,0 +1,10 @@
+-- Incremented by OrderOutboxRelay in the transaction that removes a batch from the
+-- outbox. Together with the number of events still in the outbox it identifies the
+-- committed state of the orders table, which is what the orders ETag is built from.
+CREATE TABLE IF NOT EXISTS order_change_version (
+    id         SMALLINT    PRIMARY KEY CHECK (id = 1),
+    version    BIGINT      NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL
+);
+
+INSERT INTO order_change_version (id, version, updated_at) VALUES (1, 0, now()) ON CONFLICT DO NOTHING;
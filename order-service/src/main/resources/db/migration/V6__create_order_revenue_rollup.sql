@@ -0,0 +1,22 @@
+-- Order counts and revenue per time bucket and status, keyed by the order's created_at.
+-- MINUTE rows are computed from orders; HOUR rows from MINUTE rows; DAY rows from HOUR rows.
+CREATE TABLE IF NOT EXISTS order_revenue_rollup (
+    granularity  VARCHAR(8)     NOT NULL,
+    bucket_start TIMESTAMP(6)   NOT NULL,
+    status       VARCHAR(32)    NOT NULL,
+    order_count  BIGINT         NOT NULL,
+    revenue      NUMERIC(19, 2) NOT NULL,
+    PRIMARY KEY (granularity, bucket_start, status)
+);
+
+-- Backfill progress, so a restarted backfill resumes where it stopped
+CREATE TABLE IF NOT EXISTS order_revenue_rollup_state (
+    id                 SMALLINT     PRIMARY KEY CHECK (id = 1),
+    backfilled_through TIMESTAMP(6),
+    completed_at       TIMESTAMPTZ
+);
+
+INSERT INTO order_revenue_rollup_state (id) VALUES (1) ON CONFLICT DO NOTHING;
+
+-- Lets the relay find the bucket an event belongs to without reading the order
+ALTER TABLE order_outbox ADD COLUMN IF NOT EXISTS order_created_at TIMESTAMP(6);
@@ -4,16 +4,24 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Map;
+
 @SpringBootApplication
+@EnableScheduling
 public class UserServiceApplication {
 
     private static final Logger logger = LoggerFactory.getLogger(UserServiceApplication.class);
 
     public static void main(String[] args) {
-        SpringApplication.run(UserServiceApplication.class, args);
+        SpringApplication application = new SpringApplication(UserServiceApplication.class);
+        // Open-in-view would bind one EntityManager, and with it one pooled connection, to
+        // each request until the response is complete, including long-lived streams
+        application.setDefaultProperties(Map.of("spring.jpa.open-in-view", "false"));
+        application.run(args);
         logger.info("User Service started successfully!");
     }
 
@@ -0,0 +1,31 @@
+package com.observability.userservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.boot.web.servlet.server.ConfigurableServletWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Gzip for JSON, NDJSON and CSV responses above a minimum size. Below that size the
+ * compression overhead outweighs the bytes saved.
+ */
+@Configuration
+public class CompressionConfig {
+
+    @Bean
+    public WebServerFactoryCustomizer<ConfigurableServletWebServerFactory> responseCompression(
+            @Value("${http.compression.enabled:true}") boolean enabled,
+            @Value("${http.compression.min-response-size:2KB}") DataSize minResponseSize) {
+        return factory -> {
+            Compression compression = new Compression();
+            compression.setEnabled(enabled);
+            compression.setMinResponseSize(minResponseSize);
+            compression.setMimeTypes(new String[] { "application/json", "application/x-ndjson", "text/csv",
+                    "text/plain" });
+            factory.setCompression(compression);
+        };
+    }
+}
@@ -42,7 +42,8 @@ public class CorsConfig implements WebMvcConfigurer {
         config.setAllowCredentials(false);
         
         // Expose headers
-        config.setExposedHeaders(Arrays.asList("Authorization", "Content-Type", "Access-Control-Allow-Origin"));
+        config.setExposedHeaders(Arrays.asList("Authorization", "Content-Type", "Access-Control-Allow-Origin",
+                "ETag", "Last-Modified"));
         
         // Cache preflight requests for 1 hour
         config.setMaxAge(3600L);
@@ -0,0 +1,22 @@
+package com.observability.userservice.config;
+
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The schema is owned by the Flyway migrations in db/migration and Hibernate only
+ * validates it. Databases created earlier by Hibernate DDL auto have tables but no
+ * migration history. They are baselined at version 1, so V1 is skipped and only later
+ * migrations run.
+ */
+@Configuration
+public class FlywayConfig {
+
+    @Bean
+    public FlywayConfigurationCustomizer baselineExistingSchema() {
+        return configuration -> configuration
+                .baselineOnMigrate(true)
+                .baselineVersion("1");
+    }
+}
@@ -0,0 +1,19 @@
+package com.observability.userservice.config;
+
+import com.observability.userservice.service.RoundTripCounter;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hooks the round-trip counter into every SQL statement Hibernate prepares.
+ */
+@Configuration
+public class HibernateConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer statementInspector(RoundTripCounter roundTripCounter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, roundTripCounter);
+    }
+}
@@ -7,7 +7,9 @@ import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -16,11 +18,20 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.observability.userservice.dto.UserDTO;
+import com.observability.userservice.dto.UserPageDTO;
+import com.observability.userservice.repository.UsersVersionRepository.UsersVersion;
+import com.observability.userservice.service.UserLookup;
 import com.observability.userservice.service.UserService;
+import com.observability.userservice.service.UserStatsSnapshot;
+import com.observability.userservice.service.UserStreamer;
 
 import io.micrometer.tracing.Span;
 import io.micrometer.tracing.Tracer;
@@ -33,12 +44,18 @@ public class UserController {
     
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
     
+    private static final int MAX_EXISTS_BATCH = 1000;
+    
     private final UserService userService;
+    private final UserLookup userLookup;
+    private final UserStreamer userStreamer;
     private final Tracer tracer;
     
     
-    public UserController(UserService userService, Tracer tracer) {
+    public UserController(UserService userService, UserLookup userLookup, UserStreamer userStreamer, Tracer tracer) {
         this.userService = userService;
+        this.userLookup = userLookup;
+        this.userStreamer = userStreamer;
         this.tracer = tracer;
     }
     
@@ -69,13 +86,44 @@ public class UserController {
     }
     
     @GetMapping
-    public ResponseEntity<List<UserDTO>> getAllUsers() {
+    public ResponseEntity<?> getAllUsers(@RequestParam(value = "cursor", required = false) String cursor,
+                                         @RequestParam(value = "size", required = false) Integer size,
+                                         WebRequest webRequest) {
         Span span = tracer.nextSpan().name("getAllUsers").start();
         try {
-            logger.info("GET /api/users - Fetching all users");
+            logger.info("GET /api/users - Fetching users (cursor={}, size={})", cursor, size);
+            
+            // Answer 304 before touching the users table when nothing has changed. The
+            // version covers every page, since an ETag is scoped to its full URL.
+            UsersVersion version = userService.getUsersVersion();
+            if (webRequest.checkNotModified(version.etag(), version.updatedAtMillis())) {
+                span.tag("http.notModified", "true");
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(version.etag()).build();
+            }
+            
+            // Without paging parameters the whole table is returned, as before
+            if (cursor != null || size != null) {
+                UserPageDTO page = userService.getUsersPage(cursor, size);
+                span.tag("users.count", String.valueOf(page.getSize()));
+                span.tag("users.hasMore", String.valueOf(page.isHasMore()));
+                return ResponseEntity.ok()
+                        .eTag(version.etag())
+                        .lastModified(version.updatedAtMillis())
+                        .cacheControl(CacheControl.noCache())
+                        .body(page);
+            }
+            
             List<UserDTO> users = userService.getAllUsers();
             span.tag("users.count", String.valueOf(users.size()));
-            return ResponseEntity.ok(users);
+            return ResponseEntity.ok()
+                    .eTag(version.etag())
+                    .lastModified(version.updatedAtMillis())
+                    .cacheControl(CacheControl.noCache())
+                    .body(users);
+        } catch (IllegalArgumentException e) {
+            logger.error("Error fetching users page: {}", e.getMessage());
+            span.error(e);
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("Unexpected error fetching users", e);
             span.error(e);
@@ -86,6 +134,50 @@ public class UserController {
         }
     }
     
+    /**
+     * Streams every user in id order as NDJSON (default) or Server-Sent Events, reading one
+     * page at a time as the client keeps up. Resumes after the given cursor or, for SSE
+     * reconnects, after the Last-Event-ID.
+     */
+    @GetMapping("/stream")
+    public ResponseEntity<?> streamUsers(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        Span span = tracer.nextSpan().name("streamUsers").start();
+        UserStreamer.Format streamFormat;
+        long afterId;
+        try {
+            logger.info("GET /api/users/stream - Streaming users (format={})", format);
+            streamFormat = UserStreamer.Format.valueOf(format.toUpperCase());
+            afterId = lastEventId != null ? lastEventId : UserService.decodeCursor(cursor);
+            span.tag("stream.format", streamFormat.name());
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid user stream request: {}", e.getMessage());
+            span.error(e);
+            span.end();
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        
+        // The span stays open until the body has been streamed
+        StreamingResponseBody body = out -> {
+            try {
+                long rows = userStreamer.stream(afterId, streamFormat, out);
+                span.tag("users.count", String.valueOf(rows));
+            } catch (Exception e) {
+                logger.error("User stream aborted", e);
+                span.error(e);
+                throw e;
+            } finally {
+                span.end();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(streamFormat.getContentType()))
+                .cacheControl(CacheControl.noStore())
+                .body(body);
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<?> getUserById(@PathVariable("id") Long id) {
         Span span = tracer.nextSpan().name("getUserById").start();
@@ -199,20 +291,34 @@ public class UserController {
     }
     
     @GetMapping("/stats")
-    public ResponseEntity<Map<String, Object>> getUserStats() {
+    public ResponseEntity<Map<String, Object>> getUserStats(WebRequest webRequest) {
         Span span = tracer.nextSpan().name("getUserStats").start();
         try {
             logger.info("GET /api/users/stats - Fetching user statistics");
             
+            // Tied to the counts rather than the table version, which also moves on
+            // writes that leave the counts alone, such as login flushes
+            UserStatsSnapshot.Stats snapshot = userService.getUserStats();
+            String etag = "user-stats-" + snapshot.fingerprint();
+            if (webRequest.checkNotModified(etag)) {
+                span.tag("http.notModified", "true");
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            
             Map<String, Object> stats = new HashMap<>();
-            stats.put("activeUsers", userService.getActiveUserCount());
-            stats.put("inactiveUsers", userService.getInactiveUserCount());
-            stats.put("totalUsers", userService.getActiveUserCount() + userService.getInactiveUserCount());
+            stats.put("activeUsers", snapshot.active());
+            stats.put("inactiveUsers", snapshot.inactive());
+            stats.put("totalUsers", snapshot.total());
+            stats.put("reconciledAt", snapshot.reconciledAt().toString());
+            stats.put("stalenessMs", snapshot.staleness().toMillis());
             
             span.tag("stats.activeUsers", stats.get("activeUsers").toString());
             span.tag("stats.totalUsers", stats.get("totalUsers").toString());
             
-            return ResponseEntity.ok(stats);
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .body(stats);
         } finally {
             span.end();
         }
@@ -223,11 +329,11 @@ public class UserController {
         Span span = null;
         try {
             span = tracer.nextSpan().name("checkUserExists").start();
-            logger.info("GET /api/users/{}/exists - checking user existence", id);
+            logger.debug("GET /api/users/{}/exists - checking user existence", id);
             try { span.tag("user.id", String.valueOf(id)); } catch (Throwable t) { /* ignore */ }
             
             boolean exists = userService.userExists(id);
-            logger.info("GET /api/users/{}/exists -> exists={}", id, exists);
+            logger.debug("GET /api/users/{}/exists -> exists={}", id, exists);
             try { span.tag("user.exists", String.valueOf(exists)); } catch (Throwable t) { /* ignore */ }
             
             return ResponseEntity.ok(Map.of("exists", exists));
@@ -239,4 +345,70 @@ public class UserController {
             if (span != null) { try { span.end(); } catch (Throwable t) { /* ignore */ } }
         }
     }
+    
+    @PostMapping("/exists")
+    public ResponseEntity<?> checkUsersExist(@RequestBody List<Long> ids) {
+        Span span = tracer.nextSpan().name("checkUsersExist").start();
+        try {
+            logger.debug("POST /api/users/exists - checking existence of {} users", ids.size());
+            span.tag("users.batchSize", String.valueOf(ids.size()));
+            
+            if (ids.size() > MAX_EXISTS_BATCH) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", "At most " + MAX_EXISTS_BATCH + " ids per request"));
+            }
+            if (ids.contains(null)) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Ids must not be null"));
+            }
+            
+            return ResponseEntity.ok(userService.usersExist(ids));
+        } catch (Exception e) {
+            logger.error("Error checking existence of users", e);
+            span.error(e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to check user existence"));
+        } finally {
+            span.end();
+        }
+    }
+    
+    @GetMapping("/lookup")
+    public ResponseEntity<?> lookupUsers(@RequestParam("ids") List<Long> ids) {
+        return lookup(ids);
+    }
+    
+    @PostMapping("/lookup")
+    public ResponseEntity<?> lookupUsersByBody(@RequestBody List<Long> ids) {
+        return lookup(ids);
+    }
+    
+    private ResponseEntity<?> lookup(List<Long> requestedIds) {
+        Span span = tracer.nextSpan().name("lookupUsers").start();
+        List<Long> ids;
+        try {
+            ids = userLookup.validate(requestedIds);
+            logger.debug("Looking up {} users", ids.size());
+            span.tag("users.batchSize", String.valueOf(ids.size()));
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid user lookup: {}", e.getMessage());
+            span.error(e);
+            span.end();
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        
+        // The span stays open until the body has been streamed
+        StreamingResponseBody body = out -> {
+            try {
+                int missing = userLookup.write(ids, out);
+                span.tag("users.missing", String.valueOf(missing));
+            } catch (Exception e) {
+                logger.error("User lookup aborted", e);
+                span.error(e);
+                throw e;
+            } finally {
+                span.end();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
 }
@@ -0,0 +1,54 @@
+package com.observability.userservice.dto;
+
+import java.util.List;
+
+public class UserPageDTO {
+
+    private List<UserDTO> items;
+    private String nextCursor;
+    private boolean hasMore;
+    private int size;
+
+    // Constructors
+    public UserPageDTO() {}
+
+    public UserPageDTO(List<UserDTO> items, String nextCursor, boolean hasMore) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+        this.size = items.size();
+    }
+
+    // Getters and Setters
+    public List<UserDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<UserDTO> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+}
@@ -0,0 +1,20 @@
+package com.observability.userservice.dto;
+
+public class UserStatsTotals {
+    
+    private final long active;
+    private final long inactive;
+    
+    public UserStatsTotals(Long active, Long inactive) {
+        this.active = active != null ? active : 0L;
+        this.inactive = inactive != null ? inactive : 0L;
+    }
+    
+    public long getActive() {
+        return active;
+    }
+    
+    public long getInactive() {
+        return inactive;
+    }
+}
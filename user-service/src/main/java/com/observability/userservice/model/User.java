@@ -7,21 +7,27 @@ import jakarta.validation.constraints.Size;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = {
+        @UniqueConstraint(name = User.USERNAME_CONSTRAINT, columnNames = "username"),
+        @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "email")
+})
 public class User {
     
+    public static final String USERNAME_CONSTRAINT = "uk_users_username";
+    public static final String EMAIL_CONSTRAINT = "uk_users_email";
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
     @NotBlank(message = "Username is required")
     @Size(min = 3, max = 50, message = "Username must be between 3 and 50 characters")
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     private String username;
     
     @NotBlank(message = "Email is required")
     @Email(message = "Email should be valid")
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     private String email;
     
     @NotBlank(message = "Full name is required")
@@ -31,12 +37,14 @@ public class User {
     @Column(nullable = false)
     private LocalDateTime createdAt;
     
-    @Column(nullable = false)
+    // Written only by the login flush in UserLoginRepository. Excluded from JPA updates,
+    // so saving an entity read before a flush cannot overwrite the flushed values.
+    @Column(nullable = false, updatable = false)
     private LocalDateTime lastLoginAt;
     
     private boolean active = true;
     
-    @Column(nullable = false)
+    @Column(nullable = false, updatable = false)
     private int loginCount = 0;
     
     @PrePersist
@@ -0,0 +1,62 @@
+package com.observability.userservice.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Applies buffered login counts to the users table without reading the rows first.
+ */
+@Repository
+public class UserLoginRepository {
+
+    // One statement per batch, so the statement-level users_version trigger fires once per
+    // flush rather than once per user. The locked CTE takes the row locks in id order, so
+    // concurrent flushes cannot deadlock. GREATEST keeps last_login_at from moving
+    // backwards when flushes from different instances arrive out of order.
+    private static final String APPLY_SQL = "WITH d AS ("
+            + "SELECT * FROM unnest(?::bigint[], ?::int[], ?::timestamp[]) AS d(id, n, at)"
+            + "), locked AS ("
+            + "SELECT u.id FROM users u JOIN d ON d.id = u.id ORDER BY u.id FOR UPDATE OF u"
+            + ") UPDATE users u SET login_count = u.login_count + d.n, "
+            + "last_login_at = GREATEST(u.last_login_at, d.at) "
+            + "FROM d JOIN locked l ON l.id = d.id WHERE u.id = d.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserLoginRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Applies all deltas with a single UPDATE. Each user id must appear at most once.
+     */
+    public void applyLogins(List<LoginDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Long[] userIds = new Long[deltas.size()];
+        Integer[] logins = new Integer[deltas.size()];
+        Timestamp[] lastLogins = new Timestamp[deltas.size()];
+        for (int i = 0; i < deltas.size(); i++) {
+            LoginDelta delta = deltas.get(i);
+            userIds[i] = delta.userId();
+            logins[i] = delta.logins();
+            lastLogins[i] = Timestamp.valueOf(delta.lastLoginAt());
+        }
+        jdbcTemplate.update(APPLY_SQL, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("bigint", userIds));
+            ps.setArray(2, ps.getConnection().createArrayOf("int4", logins));
+            ps.setArray(3, ps.getConnection().createArrayOf("timestamp", lastLogins));
+        });
+    }
+
+    /**
+     * Logins recorded for one user since the last flush.
+     */
+    public record LoginDelta(long userId, int logins, LocalDateTime lastLoginAt) {
+    }
+}
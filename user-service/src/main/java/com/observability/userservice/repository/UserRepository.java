@@ -1,11 +1,20 @@
 package com.observability.userservice.repository;
 
+import com.observability.userservice.dto.UserDTO;
+import com.observability.userservice.dto.UserStatsTotals;
 import com.observability.userservice.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -14,14 +23,40 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     Optional<User> findByEmail(String email);
     
-    boolean existsByUsername(String username);
+    // Read-only projections: rows go straight into UserDTO without managed entities
+    String SELECT_USER_DTO = "SELECT new com.observability.userservice.dto.UserDTO(u.id, u.username, u.email, "
+            + "u.fullName, u.createdAt, u.lastLoginAt, u.active, u.loginCount) FROM User u";
     
-    boolean existsByEmail(String email);
+    @Query(SELECT_USER_DTO)
+    List<UserDTO> findAllDtos();
     
-    @Query("SELECT COUNT(u) FROM User u WHERE u.active = true")
-    long countActiveUsers();
+    // Keyset pages in id order: each page is an index range scan on the primary key,
+    // whatever its position
+    @Query(SELECT_USER_DTO + " WHERE u.id > :afterId ORDER BY u.id")
+    List<UserDTO> findDtoPageAfter(long afterId, Pageable pageable);
     
-    @Query("SELECT COUNT(u) FROM User u WHERE u.active = false")
-    long countInactiveUsers();
+    @Query(SELECT_USER_DTO + " WHERE u.id = :id")
+    Optional<UserDTO> findDtoById(Long id);
+    
+    @Query(SELECT_USER_DTO + " WHERE u.username = :username")
+    Optional<UserDTO> findDtoByUsername(String username);
+    
+    // Must be consumed inside a transaction and closed
+    @Query(SELECT_USER_DTO + " WHERE u.id IN :ids ORDER BY u.id")
+    Stream<UserDTO> streamDtosByIds(Collection<Long> ids);
+    
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    List<Long> findExistingIds(Collection<Long> ids);
+    
+    // Must be consumed inside a transaction and closed
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"))
+    @Query("SELECT u.id FROM User u")
+    Stream<Long> streamAllIds();
+    
+    // Every stats figure from one scan; SUM over no rows is null, handled by UserStatsTotals
+    @Query("SELECT new com.observability.userservice.dto.UserStatsTotals("
+            + "SUM(CASE WHEN u.active = true THEN 1L ELSE 0L END), "
+            + "SUM(CASE WHEN u.active = false THEN 1L ELSE 0L END)) FROM User u")
+    UserStatsTotals aggregateStats();
 }
 
@@ -0,0 +1,36 @@
+package com.observability.userservice.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Reads the whole-table version that a trigger maintains on every users write.
+ */
+@Repository
+public class UsersVersionRepository {
+
+    private static final String SELECT_SQL = "SELECT version, "
+            + "CAST(EXTRACT(EPOCH FROM updated_at) * 1000 AS BIGINT) AS updated_at_millis "
+            + "FROM users_version WHERE id = 1";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UsersVersionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public UsersVersion current() {
+        return jdbcTemplate.queryForObject(SELECT_SQL,
+                (rs, rowNum) -> new UsersVersion(rs.getLong("version"), rs.getLong("updated_at_millis")));
+    }
+
+    /**
+     * Version of the users table and the time of its last write, in epoch milliseconds.
+     */
+    public record UsersVersion(long version, long updatedAtMillis) {
+
+        public String etag() {
+            return "users-" + version;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.observability.userservice.service;
+
+import com.observability.userservice.repository.UserLoginRepository;
+import com.observability.userservice.repository.UserLoginRepository.LoginDelta;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for login counts. Logins are added to in-memory counters and a
+ * scheduled flush applies them with one UPDATE per batch of users, so a popular account
+ * costs one row write per flush instead of one locked read-modify-write per login.
+ * Counters are split over lock stripes by user id; unrelated users never contend, and
+ * logins for one hot user serialize on a short in-memory lock instead of the row lock.
+ * The buffer is drained on shutdown. Logins still buffered when the process dies are lost.
+ * <p>
+ * Each flush also bumps the users table version once per batch, through the statement
+ * trigger from V2. The bump holds the users_version row lock until the batch commits, so
+ * user creates, updates and deletes on every instance wait behind it. Batches stay one
+ * statement and one short transaction each to keep that wait small, and the version
+ * moving once per flush interval is what invalidates cached user lists when counts change.
+ */
+@Component
+public class LoginCounterBuffer {
+
+	private static final Logger logger = LoggerFactory.getLogger(LoginCounterBuffer.class);
+
+	private static final int STRIPES = 16;
+	private static final long MAX_FLUSH_INTERVAL_MS = 60_000;
+
+	private final UserLoginRepository userLoginRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final int batchSize;
+	private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+	// A lock rather than synchronized, so a flush on a virtual thread does not pin its
+	// carrier while waiting on the database
+	private final ReentrantLock flushLock = new ReentrantLock();
+	@SuppressWarnings("unchecked")
+	private final Map<Long, Pending>[] stripes = new Map[STRIPES];
+	private final Timer flushTimer;
+	private final DistributionSummary flushSizeSummary;
+
+	public LoginCounterBuffer(UserLoginRepository userLoginRepository, PlatformTransactionManager transactionManager,
+			@Value("${user.login.flush-interval-ms:1000}") long flushIntervalMs,
+			@Value("${user.login.flush-batch-size:500}") int batchSize, MeterRegistry meterRegistry) {
+		if (flushIntervalMs <= 0 || flushIntervalMs > MAX_FLUSH_INTERVAL_MS) {
+			throw new IllegalArgumentException(
+					"user.login.flush-interval-ms must be between 1 and " + MAX_FLUSH_INTERVAL_MS);
+		}
+		this.userLoginRepository = userLoginRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.batchSize = batchSize;
+		for (int i = 0; i < STRIPES; i++) {
+			locks[i] = new ReentrantLock();
+			stripes[i] = new HashMap<>();
+		}
+		this.flushTimer = Timer.builder("user.login.flush")
+				.description("Time to write buffered login counts to the database")
+				.register(meterRegistry);
+		this.flushSizeSummary = DistributionSummary.builder("user.login.flush.users")
+				.description("Users whose login counts were written per flush")
+				.register(meterRegistry);
+		Gauge.builder("user.login.pending", this, LoginCounterBuffer::pendingUsers)
+				.description("Users with logins not yet written to the database")
+				.register(meterRegistry);
+	}
+
+	public void record(long userId, LocalDateTime loginAt) {
+		add(userId, 1, loginAt);
+	}
+
+	private void add(long userId, int logins, LocalDateTime loginAt) {
+		int stripe = Math.floorMod(Long.hashCode(userId), STRIPES);
+		locks[stripe].lock();
+		try {
+			Pending pending = stripes[stripe].computeIfAbsent(userId, id -> new Pending());
+			pending.logins += logins;
+			if (pending.lastLoginAt == null || loginAt.isAfter(pending.lastLoginAt)) {
+				pending.lastLoginAt = loginAt;
+			}
+		} finally {
+			locks[stripe].unlock();
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${user.login.flush-interval-ms:1000}")
+	public void flushScheduled() {
+		try {
+			flush();
+		} catch (Exception e) {
+			logger.warn("Could not flush login counts, will retry: {}", e.getMessage());
+		}
+	}
+
+	@PreDestroy
+	public void drain() {
+		flush();
+		logger.info("Login counts drained");
+	}
+
+	/**
+	 * Swaps out every stripe and writes the collected counts in user id order. On failure
+	 * the counts go back into the buffer for the next flush.
+	 */
+	public void flush() {
+		flushLock.lock();
+		try {
+			flushLocked();
+		} finally {
+			flushLock.unlock();
+		}
+	}
+
+	private void flushLocked() {
+		List<LoginDelta> deltas = new ArrayList<>();
+		for (int i = 0; i < STRIPES; i++) {
+			Map<Long, Pending> drained;
+			locks[i].lock();
+			try {
+				drained = stripes[i];
+				if (drained.isEmpty()) {
+					continue;
+				}
+				stripes[i] = new HashMap<>();
+			} finally {
+				locks[i].unlock();
+			}
+			drained.forEach((userId, pending) ->
+					deltas.add(new LoginDelta(userId, pending.logins, pending.lastLoginAt)));
+		}
+		if (deltas.isEmpty()) {
+			return;
+		}
+		deltas.sort(Comparator.comparingLong(LoginDelta::userId));
+
+		int written = 0;
+		try {
+			Timer.Sample sample = Timer.start();
+			for (; written < deltas.size(); written += batchSize) {
+				List<LoginDelta> batch = deltas.subList(written, Math.min(written + batchSize, deltas.size()));
+				transactionTemplate.executeWithoutResult(tx -> userLoginRepository.applyLogins(batch));
+			}
+			sample.stop(flushTimer);
+			flushSizeSummary.record(deltas.size());
+		} catch (RuntimeException e) {
+			for (LoginDelta delta : deltas.subList(written, deltas.size())) {
+				add(delta.userId(), delta.logins(), delta.lastLoginAt());
+			}
+			throw e;
+		}
+	}
+
+	private double pendingUsers() {
+		long pending = 0;
+		for (int i = 0; i < STRIPES; i++) {
+			locks[i].lock();
+			try {
+				pending += stripes[i].size();
+			} finally {
+				locks[i].unlock();
+			}
+		}
+		return pending;
+	}
+
+	// Guarded by the lock of its stripe
+	private static final class Pending {
+
+		private int logins;
+		private LocalDateTime lastLoginAt;
+	}
+}
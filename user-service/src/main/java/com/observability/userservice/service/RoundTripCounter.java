@@ -0,0 +1,56 @@
+package com.observability.userservice.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Counts the SQL statements Hibernate sends while a service operation runs on the current
+ * thread and records the total per operation as user.db.round.trips. Registered as the
+ * Hibernate statement inspector by {@code HibernateConfig}. Statements sent through
+ * JdbcTemplate are not counted.
+ */
+@Component
+public class RoundTripCounter implements StatementInspector {
+
+	private final ThreadLocal<int[]> current = new ThreadLocal<>();
+	private final MeterRegistry meterRegistry;
+
+	public RoundTripCounter(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	public String inspect(String sql) {
+		int[] count = current.get();
+		if (count != null) {
+			count[0]++;
+		}
+		return sql;
+	}
+
+	/**
+	 * Runs the work and records its statement count under the given operation. Nested
+	 * calls count towards the outermost operation only.
+	 */
+	public <T> T measure(String operation, Callable<T> work) throws Exception {
+		if (current.get() != null) {
+			return work.call();
+		}
+		int[] count = new int[1];
+		current.set(count);
+		try {
+			return work.call();
+		} finally {
+			current.remove();
+			DistributionSummary.builder("user.db.round.trips")
+					.description("SQL statements sent per user operation")
+					.tag("operation", operation)
+					.register(meterRegistry)
+					.record(count[0]);
+		}
+	}
+}
@@ -0,0 +1,257 @@
+package com.observability.userservice.service;
+
+import com.observability.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter over user ids. A negative answer is definite, so existence checks for ids
+ * that were never created skip the database. Deleted ids stay in the filter and fall
+ * through to the database until the next rebuild. Until the first build finishes, every
+ * id is reported as possibly present.
+ * <p>
+ * Only creates on this instance are added between builds. Ids are IDENTITY values and only
+ * grow, so any id above the highest one the last build read is reported as possibly
+ * present, which sends users created on other instances to the database. An id allocated
+ * before a build's scan but committed after it on another instance is the one case left,
+ * and the next rebuild picks it up.
+ */
+@Component
+public class UserIdFilter {
+
+	private static final Logger logger = LoggerFactory.getLogger(UserIdFilter.class);
+
+	// Rebuilt filters leave room for this many times the current user count
+	private static final int GROWTH_FACTOR = 2;
+	private static final long MIN_CAPACITY = 10_000;
+
+	private final UserRepository userRepository;
+	private final TransactionTemplate readOnlyTransaction;
+	private final boolean enabled;
+	private final double falsePositiveRate;
+	private final Duration rebuildInterval;
+	// Held across the whole table scan, where a monitor would pin a virtual thread
+	private final ReentrantLock rebuildLock = new ReentrantLock();
+	private volatile Bloom current;
+	private volatile Bloom building;
+	private volatile long builtAtNanos;
+	private final Counter rejectedCounter;
+	private final Counter passedCounter;
+	private final Counter falsePositiveCounter;
+
+	public UserIdFilter(UserRepository userRepository, PlatformTransactionManager transactionManager,
+			@Value("${user.exists.filter.enabled:true}") boolean enabled,
+			@Value("${user.exists.filter.false-positive-rate:0.01}") double falsePositiveRate,
+			@Value("${user.exists.filter.rebuild-interval:10m}") Duration rebuildInterval,
+			MeterRegistry meterRegistry) {
+		if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+			throw new IllegalArgumentException("user.exists.filter.false-positive-rate must be between 0 and 1");
+		}
+		this.userRepository = userRepository;
+		this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+		this.readOnlyTransaction.setReadOnly(true);
+		this.enabled = enabled;
+		this.falsePositiveRate = falsePositiveRate;
+		this.rebuildInterval = rebuildInterval;
+		this.rejectedCounter = Counter.builder("user.exists.filter.checks")
+				.description("Existence checks answered by the user id filter")
+				.tag("result", "absent")
+				.register(meterRegistry);
+		this.passedCounter = Counter.builder("user.exists.filter.checks")
+				.description("Existence checks answered by the user id filter")
+				.tag("result", "maybe")
+				.register(meterRegistry);
+		this.falsePositiveCounter = Counter.builder("user.exists.filter.false.positives")
+				.description("Ids the filter passed that the database then reported missing")
+				.register(meterRegistry);
+		Gauge.builder("user.exists.filter.ids", this, filter -> {
+			Bloom bloom = filter.current;
+			return bloom == null ? Double.NaN : bloom.inserted.get();
+		}).description("Ids added to the user id filter since its last build").register(meterRegistry);
+	}
+
+	/**
+	 * False only when the user certainly does not exist.
+	 */
+	public boolean mightExist(long userId) {
+		Bloom bloom = current;
+		if (bloom == null) {
+			return true;
+		}
+		if (userId > bloom.highestBuiltId || bloom.mightContain(userId)) {
+			passedCounter.increment();
+			return true;
+		}
+		rejectedCounter.increment();
+		return false;
+	}
+
+	public void recordFalsePositive() {
+		falsePositiveCounter.increment();
+	}
+
+	/**
+	 * Adds a newly created user. Inside a transaction the id is added after commit; ids
+	 * are only handed to clients after that, and a rebuild that started earlier cannot
+	 * miss it.
+	 */
+	public void add(long userId) {
+		if (!enabled) {
+			return;
+		}
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					addNow(userId);
+				}
+			});
+		} else {
+			addNow(userId);
+		}
+	}
+
+	private void addNow(long userId) {
+		// A rebuild in progress may have read the users table before this commit. Read
+		// building before current: rebuild publishes the new filter before clearing
+		// building, so whichever is read second, the new filter gets the id.
+		Bloom next = building;
+		if (next != null) {
+			next.put(userId);
+		}
+		Bloom bloom = current;
+		if (bloom != null && bloom != next) {
+			bloom.put(userId);
+		}
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void buildAtStartup() {
+		if (enabled) {
+			rebuild();
+		}
+	}
+
+	/**
+	 * Rebuilds when the interval has passed, to drop deleted ids, or early when more ids
+	 * were added than the filter was sized for.
+	 */
+	@Scheduled(fixedDelayString = "${user.exists.filter.check-interval-ms:60000}",
+			initialDelayString = "${user.exists.filter.check-interval-ms:60000}")
+	public void rebuildIfDue() {
+		Bloom bloom = current;
+		if (!enabled || bloom == null) {
+			return;
+		}
+		boolean expired = System.nanoTime() - builtAtNanos > rebuildInterval.toNanos();
+		if (expired || bloom.inserted.get() > bloom.capacity) {
+			rebuild();
+		}
+	}
+
+	private void rebuild() {
+		rebuildLock.lock();
+		long started = System.nanoTime();
+		try {
+			long count = userRepository.count();
+			Bloom next = new Bloom(Math.max(MIN_CAPACITY, count * GROWTH_FACTOR), falsePositiveRate);
+			building = next;
+			readOnlyTransaction.executeWithoutResult(tx -> {
+				try (Stream<Long> ids = userRepository.streamAllIds()) {
+					ids.forEach(id -> {
+						next.put(id);
+						next.highestBuiltId = Math.max(next.highestBuiltId, id);
+					});
+				}
+			});
+			// Publishing through the volatile field makes highestBuiltId visible to readers
+			current = next;
+			builtAtNanos = System.nanoTime();
+			logger.info("User id filter built with {} ids ({} bits, {} hashes) in {} ms", next.inserted.get(),
+					next.bitCount, next.hashCount, Duration.ofNanos(builtAtNanos - started).toMillis());
+		} catch (Exception e) {
+			// Keep answering from the previous filter, or from the database if none was built
+			logger.warn("Could not build user id filter: {}", e.getMessage());
+		} finally {
+			building = null;
+			rebuildLock.unlock();
+		}
+	}
+
+	/**
+	 * Fixed-size bit set with k hash positions per id, derived by double hashing.
+	 * Safe for concurrent puts and reads.
+	 */
+	static final class Bloom {
+
+		private final AtomicLongArray words;
+		final long bitCount;
+		final int hashCount;
+		final long capacity;
+		private final AtomicLong inserted = new AtomicLong();
+		// Highest id read by the build; written only before the filter is published
+		long highestBuiltId;
+
+		Bloom(long capacity, double falsePositiveRate) {
+			double ln2 = Math.log(2);
+			long bits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (ln2 * ln2));
+			int wordCount = (int) Math.min(Integer.MAX_VALUE, Math.max(1, (bits + 63) / 64));
+			this.words = new AtomicLongArray(wordCount);
+			this.bitCount = wordCount * 64L;
+			this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * ln2));
+			this.capacity = capacity;
+		}
+
+		void put(long id) {
+			long h1 = mix(id);
+			long h2 = mix(h1) | 1;
+			for (int i = 0; i < hashCount; i++) {
+				long bit = Math.floorMod(h1 + i * h2, bitCount);
+				long mask = 1L << bit;
+				int word = (int) (bit >>> 6);
+				if ((words.get(word) & mask) == 0) {
+					words.getAndAccumulate(word, mask, (a, b) -> a | b);
+				}
+			}
+			inserted.incrementAndGet();
+		}
+
+		boolean mightContain(long id) {
+			long h1 = mix(id);
+			long h2 = mix(h1) | 1;
+			for (int i = 0; i < hashCount; i++) {
+				long bit = Math.floorMod(h1 + i * h2, bitCount);
+				if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		// SplitMix64 finalizer: sequential ids must not land on neighbouring bits
+		private static long mix(long z) {
+			z += 0x9e3779b97f4a7c15L;
+			z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+			z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+			return z ^ (z >>> 31);
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package com.observability.userservice.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.observability.userservice.dto.UserDTO;
+import com.observability.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Multi-get of users by id, replacing one GET /api/users/{id} per row. One query fetches
+ * every requested user and the rows are written to the response as they are read, as
+ * {"users":[...],"missing":[...]}. Ids without a user are listed under missing, in
+ * request order.
+ */
+@Component
+public class UserLookup {
+
+	public static final int MAX_IDS = 1000;
+
+	private final UserRepository userRepository;
+	private final ObjectMapper objectMapper;
+	private final ObjectWriter rowWriter;
+	private final TransactionTemplate readOnlyTransaction;
+	private final DistributionSummary batchSizeSummary;
+	private final Counter missingCounter;
+
+	public UserLookup(UserRepository userRepository, ObjectMapper objectMapper,
+			PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+		this.userRepository = userRepository;
+		this.objectMapper = objectMapper;
+		// The whole response is flushed once at the end instead of once per row
+		this.rowWriter = objectMapper.writerFor(UserDTO.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+		this.readOnlyTransaction.setReadOnly(true);
+		this.batchSizeSummary = DistributionSummary.builder("user.lookup.batch.size")
+				.description("Distinct user ids requested per multi-get")
+				.register(meterRegistry);
+		this.missingCounter = Counter.builder("user.lookup.missing")
+				.description("Requested user ids that did not exist")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Returns the distinct ids in request order, or throws IllegalArgumentException when
+	 * the list is empty, too long or contains null.
+	 */
+	public List<Long> validate(Collection<Long> ids) {
+		if (ids == null || ids.isEmpty()) {
+			throw new IllegalArgumentException("At least one id is required");
+		}
+		if (ids.contains(null)) {
+			throw new IllegalArgumentException("Ids must not be null");
+		}
+		Set<Long> distinct = new LinkedHashSet<>(ids);
+		if (distinct.size() > MAX_IDS) {
+			throw new IllegalArgumentException("At most " + MAX_IDS + " ids per request");
+		}
+		return List.copyOf(distinct);
+	}
+
+	/**
+	 * Writes the users for the given validated ids and returns how many were missing.
+	 */
+	public int write(List<Long> ids, OutputStream out) throws IOException {
+		batchSizeSummary.record(ids.size());
+		Set<Long> missing = new LinkedHashSet<>(ids);
+		JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+		// The servlet container owns the response stream
+		generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		try {
+			generator.writeStartObject();
+			generator.writeArrayFieldStart("users");
+			readOnlyTransaction.executeWithoutResult(tx -> {
+				try (Stream<UserDTO> users = userRepository.streamDtosByIds(ids)) {
+					users.forEach(user -> {
+						try {
+							rowWriter.writeValue(generator, user);
+							missing.remove(user.getId());
+						} catch (IOException e) {
+							throw new UncheckedIOException(e);
+						}
+					});
+				}
+			});
+			generator.writeEndArray();
+			generator.writeArrayFieldStart("missing");
+			for (Long id : missing) {
+				generator.writeNumber(id);
+			}
+			generator.writeEndArray();
+			generator.writeEndObject();
+			generator.flush();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		missingCounter.increment(missing.size());
+		return missing.size();
+	}
+}
@@ -1,28 +1,47 @@
 package com.observability.userservice.service;
 
 import com.observability.userservice.dto.UserDTO;
+import com.observability.userservice.dto.UserPageDTO;
 import com.observability.userservice.model.User;
 import com.observability.userservice.repository.UserRepository;
+import com.observability.userservice.repository.UsersVersionRepository;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Service
 public class UserService {
 
 	private static final Logger logger = LoggerFactory.getLogger(UserService.class);
 
+	public static final int DEFAULT_PAGE_SIZE = 50;
+	public static final int MAX_PAGE_SIZE = 500;
+
 	private final UserRepository userRepository;
+	private final UsersVersionRepository usersVersionRepository;
+	private final UserIdFilter userIdFilter;
+	private final LoginCounterBuffer loginCounterBuffer;
+	private final RoundTripCounter roundTripCounter;
+	private final UserStatsSnapshot statsSnapshot;
 	private final Counter userCreatedCounter;
 	private final Counter userUpdatedCounter;
 	private final Counter userDeletedCounter;
@@ -30,8 +49,15 @@ public class UserService {
 	private final Timer userOperationTimer;
 
 	@Autowired
-	public UserService(UserRepository userRepository, MeterRegistry meterRegistry) {
+	public UserService(UserRepository userRepository, UsersVersionRepository usersVersionRepository,
+			UserIdFilter userIdFilter, LoginCounterBuffer loginCounterBuffer, RoundTripCounter roundTripCounter,
+			UserStatsSnapshot statsSnapshot, MeterRegistry meterRegistry) {
 		this.userRepository = userRepository;
+		this.usersVersionRepository = usersVersionRepository;
+		this.userIdFilter = userIdFilter;
+		this.loginCounterBuffer = loginCounterBuffer;
+		this.roundTripCounter = roundTripCounter;
+		this.statsSnapshot = statsSnapshot;
 		this.userCreatedCounter = Counter.builder("user.created").description("Total number of users created")
 				.register(meterRegistry);
 		this.userUpdatedCounter = Counter.builder("user.updated").description("Total number of users updated")
@@ -44,84 +70,137 @@ public class UserService {
 				.register(meterRegistry);
 	}
 
+	/**
+	 * Inserts in a single statement. Duplicate usernames and emails are rejected by the
+	 * unique constraints, which also closes the race a check-then-insert would leave open.
+	 */
 	@Transactional
 	public UserDTO createUser(UserDTO userDTO) throws Exception {
-		return userOperationTimer.recordCallable(() -> {
+		return userOperationTimer.recordCallable(() -> roundTripCounter.measure("create", () -> {
 			logger.info("Creating user with username: {}", userDTO.getUsername());
 
-			if (userRepository.existsByUsername(userDTO.getUsername())) {
-				throw new IllegalArgumentException("Username already exists: " + userDTO.getUsername());
-			}
-
-			if (userRepository.existsByEmail(userDTO.getEmail())) {
-				throw new IllegalArgumentException("Email already exists: " + userDTO.getEmail());
-			}
-
 			User user = new User();
 			user.setUsername(userDTO.getUsername());
 			user.setEmail(userDTO.getEmail());
 			user.setFullName(userDTO.getFullName());
 			user.setActive(true);
 
-			User savedUser = userRepository.save(user);
+			User savedUser = saveUnique(user);
+			userIdFilter.add(savedUser.getId());
+			statsSnapshot.recordCreated(savedUser.isActive());
 			userCreatedCounter.increment();
 
 			logger.info("User created successfully with ID: {}", savedUser.getId());
 			return convertToDTO(savedUser);
-		});
+		}));
 	}
 
+	@Transactional(readOnly = true)
 	public List<UserDTO> getAllUsers() throws Exception {
 		return userOperationTimer.recordCallable(() -> {
 			logger.debug("Fetching all users");
-			return userRepository.findAll().stream().map(this::convertToDTO).collect(Collectors.toList());
+			return userRepository.findAllDtos();
+		});
+	}
+
+	/**
+	 * Returns one page of users in id order, using the last id of the previous page as
+	 * the cursor. Cost depends on the page size only, not on the page's position.
+	 */
+	@Transactional(readOnly = true)
+	public UserPageDTO getUsersPage(String cursor, Integer size) throws Exception {
+		return userOperationTimer.recordCallable(() -> {
+			int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+			long afterId = decodeCursor(cursor);
+			logger.debug("Fetching users page (after={}, size={})", afterId, pageSize);
+
+			// Ask for one extra row to learn whether another page exists
+			List<UserDTO> rows = userRepository.findDtoPageAfter(afterId, PageRequest.of(0, pageSize + 1));
+			boolean hasMore = rows.size() > pageSize;
+			List<UserDTO> page = hasMore ? rows.subList(0, pageSize) : rows;
+			String nextCursor = hasMore ? encodeCursor(page.get(page.size() - 1).getId()) : null;
+			return new UserPageDTO(page, nextCursor, hasMore);
 		});
 	}
 
+	public static String encodeCursor(long afterId) {
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString(Long.toString(afterId).getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Returns the id a cursor points after; a missing cursor starts from the beginning.
+	 */
+	public static long decodeCursor(String cursor) {
+		if (cursor == null || cursor.isBlank()) {
+			return 0;
+		}
+		try {
+			return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Invalid cursor: " + cursor);
+		}
+	}
+
+	@Transactional(readOnly = true)
 	public Optional<UserDTO> getUserById(Long id) throws Exception {
 		return userOperationTimer.recordCallable(() -> {
 			logger.debug("Fetching user by ID: {}", id);
-			return userRepository.findById(id).map(this::convertToDTO);
+			return userRepository.findDtoById(id);
 		});
 	}
 
+	@Transactional(readOnly = true)
 	public Optional<UserDTO> getUserByUsername(String username) throws Exception {
 		return userOperationTimer.recordCallable(() -> {
 			logger.debug("Fetching user by username: {}", username);
-			return userRepository.findByUsername(username).map(this::convertToDTO);
+			return userRepository.findDtoByUsername(username);
 		});
 	}
 
 	@Transactional
 	public UserDTO updateUser(Long id, UserDTO userDTO) throws Exception {
-		return userOperationTimer.recordCallable(() -> {
+		return userOperationTimer.recordCallable(() -> roundTripCounter.measure("update", () -> {
 			logger.info("Updating user with ID: {}", id);
 
 			User user = userRepository.findById(id)
 					.orElseThrow(() -> new IllegalArgumentException("User not found with ID: " + id));
-
-			// Check if username is being changed and if it's already taken
-			if (!user.getUsername().equals(userDTO.getUsername())
-					&& userRepository.existsByUsername(userDTO.getUsername())) {
-				throw new IllegalArgumentException("Username already exists: " + userDTO.getUsername());
-			}
-
-			// Check if email is being changed and if it's already taken
-			if (!user.getEmail().equals(userDTO.getEmail()) && userRepository.existsByEmail(userDTO.getEmail())) {
-				throw new IllegalArgumentException("Email already exists: " + userDTO.getEmail());
-			}
+			boolean wasActive = user.isActive();
 
 			user.setUsername(userDTO.getUsername());
 			user.setEmail(userDTO.getEmail());
 			user.setFullName(userDTO.getFullName());
 			user.setActive(userDTO.isActive());
 
-			User updatedUser = userRepository.save(user);
+			User updatedUser = saveUnique(user);
+			statsSnapshot.recordActiveChange(wasActive, updatedUser.isActive());
 			userUpdatedCounter.increment();
 
 			logger.info("User updated successfully with ID: {}", updatedUser.getId());
 			return convertToDTO(updatedUser);
-		});
+		}));
+	}
+
+	/**
+	 * Writes the user immediately, so a unique constraint violation surfaces here and not
+	 * at commit, and reports it as the duplicate field. The transaction is rolled back by
+	 * the exception either way.
+	 */
+	private User saveUnique(User user) {
+		try {
+			return userRepository.saveAndFlush(user);
+		} catch (DataIntegrityViolationException e) {
+			String constraint = e.getCause() instanceof ConstraintViolationException violation
+					? violation.getConstraintName()
+					: null;
+			if (User.USERNAME_CONSTRAINT.equalsIgnoreCase(constraint)) {
+				throw new IllegalArgumentException("Username already exists: " + user.getUsername());
+			}
+			if (User.EMAIL_CONSTRAINT.equalsIgnoreCase(constraint)) {
+				throw new IllegalArgumentException("Email already exists: " + user.getEmail());
+			}
+			throw e;
+		}
 	}
 
 	@Transactional
@@ -129,62 +208,91 @@ public class UserService {
 		userOperationTimer.record(() -> {
 			logger.info("Deleting user with ID: {}", id);
 
-			if (!userRepository.existsById(id)) {
-				throw new IllegalArgumentException("User not found with ID: " + id);
-			}
+			User user = userRepository.findById(id)
+					.orElseThrow(() -> new IllegalArgumentException("User not found with ID: " + id));
 
-			userRepository.deleteById(id);
+			userRepository.delete(user);
+			statsSnapshot.recordDeleted(user.isActive());
 			userDeletedCounter.increment();
 
 			logger.info("User deleted successfully with ID: {}", id);
 		});
 	}
 
-	@Transactional
+	/**
+	 * Buffers the login; loginCount and lastLoginAt reach the database with the next
+	 * flush of {@link LoginCounterBuffer}. Only the existence check reads the database.
+	 */
 	public void recordUserLogin(Long userId) {
 		userOperationTimer.record(() -> {
 			logger.debug("Recording login for user ID: {}", userId);
 
-			User user = userRepository.findById(userId)
-					.orElseThrow(() -> new IllegalArgumentException("User not found with ID: " + userId));
-
-			user.setLastLoginAt(LocalDateTime.now());
-			user.setLoginCount(user.getLoginCount() + 1);
-			userRepository.save(user);
+			if (!userExists(userId)) {
+				throw new IllegalArgumentException("User not found with ID: " + userId);
+			}
 
+			loginCounterBuffer.record(userId, LocalDateTime.now());
 			userLoginCounter.increment();
 			logger.debug("Login recorded for user ID: {}", userId);
 		});
 	}
 
 	public boolean userExists(Long userId) {
-		logger.info("Inside userExists Checking if user exists: {}", userId);
-	    if (userId == null) {
-	    	logger.info("Checking if user exists: null {}", userId);
-	        return false;
-	    }
-
-	    try {
-	        logger.info("Checking if user exists: {}", userId);
-	        return userRepository.existsById(userId);
-
-	    } catch (Exception ex) {   // ✅ catch Exception ONLY
-	    	logger.error("check error");
-	        logger.error("Failed to check user existence for userId={}", userId, ex);
-	        throw ex;              // ✅ DO NOT swallow it
-	    }
+		if (userId == null) {
+			return false;
+		}
+		if (!userIdFilter.mightExist(userId)) {
+			logger.debug("User {} does not exist (filtered)", userId);
+			return false;
+		}
+
+		try {
+			boolean exists = userRepository.existsById(userId);
+			if (!exists) {
+				userIdFilter.recordFalsePositive();
+			}
+			logger.debug("User {} exists: {}", userId, exists);
+			return exists;
+		} catch (Exception ex) {
+			logger.error("Failed to check user existence for userId={}", userId, ex);
+			throw ex;
+		}
 	}
 
+	/**
+	 * Resolves existence for a batch of ids with a single IN query. Every requested id
+	 * appears in the result, mapped to false when no such user exists.
+	 */
+	public Map<Long, Boolean> usersExist(Collection<Long> userIds) {
+		List<Long> candidates = userIds.stream().filter(userIdFilter::mightExist).distinct().toList();
+		Set<Long> existing = candidates.isEmpty()
+				? Set.of()
+				: new HashSet<>(userRepository.findExistingIds(candidates));
+		Map<Long, Boolean> result = new LinkedHashMap<>();
+		for (Long userId : userIds) {
+			result.put(userId, existing.contains(userId));
+		}
+		logger.debug("Checked existence of {} users, {} exist", result.size(), existing.size());
+		return result;
+	}
 
-	public long getActiveUserCount() {
-		return userRepository.countActiveUsers();
+	/**
+	 * Version of the users table, for conditional reads of the list and stats endpoints.
+	 */
+	public UsersVersionRepository.UsersVersion getUsersVersion() {
+		return usersVersionRepository.current();
 	}
 
-	public long getInactiveUserCount() {
-		return userRepository.countInactiveUsers();
+	/**
+	 * Serves stats from the in-memory snapshot, falling back to one aggregate query when
+	 * the snapshot is disabled or not loaded yet.
+	 */
+	public UserStatsSnapshot.Stats getUserStats() {
+		UserStatsSnapshot.Stats snapshot = statsSnapshot.current();
+		return snapshot != null ? snapshot : statsSnapshot.loadFromDatabase();
 	}
 
-	private UserDTO convertToDTO(User user) {
+	public static UserDTO convertToDTO(User user) {
 		return new UserDTO(user.getId(), user.getUsername(), user.getEmail(), user.getFullName(), user.getCreatedAt(),
 				user.getLastLoginAt(), user.isActive(), user.getLoginCount());
 	}
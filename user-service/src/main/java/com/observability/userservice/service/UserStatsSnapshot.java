@@ -0,0 +1,139 @@
+package com.observability.userservice.service;
+
+import com.observability.userservice.dto.UserStatsTotals;
+import com.observability.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory active and inactive user counts. UserService applies every committed create,
+ * delete and active-flag change to it. A scheduled job replaces it with a fresh aggregate,
+ * which corrects drift from writes made by other instances.
+ */
+@Component
+public class UserStatsSnapshot {
+
+	private static final Logger logger = LoggerFactory.getLogger(UserStatsSnapshot.class);
+
+	private final UserRepository userRepository;
+	private final boolean enabled;
+	private final AtomicReference<Stats> current = new AtomicReference<>();
+
+	public UserStatsSnapshot(UserRepository userRepository,
+			@Value("${user.stats.snapshot.enabled:true}") boolean enabled, MeterRegistry meterRegistry) {
+		this.userRepository = userRepository;
+		this.enabled = enabled;
+		Gauge.builder("user.stats.snapshot.staleness", this, snapshot -> {
+			Stats stats = snapshot.current.get();
+			return stats == null ? Double.NaN : stats.staleness().toMillis() / 1000.0;
+		}).description("Seconds since the user stats snapshot was reconciled with the database")
+				.baseUnit("seconds").register(meterRegistry);
+	}
+
+	/**
+	 * Returns the snapshot, or null when it is disabled or not yet loaded.
+	 */
+	public Stats current() {
+		return enabled ? current.get() : null;
+	}
+
+	public Stats loadFromDatabase() {
+		UserStatsTotals totals = userRepository.aggregateStats();
+		return new Stats(totals.getActive(), totals.getInactive(), Instant.now());
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	@Scheduled(fixedDelayString = "${user.stats.snapshot.reconcile-interval-ms:30000}",
+			initialDelayString = "${user.stats.snapshot.reconcile-interval-ms:30000}")
+	public void reconcile() {
+		if (!enabled) {
+			return;
+		}
+		try {
+			Stats fresh = loadFromDatabase();
+			Stats previous = current.getAndSet(fresh);
+			if (previous != null && !previous.sameTotals(fresh)) {
+				logger.info("User stats snapshot drifted from the database and was corrected");
+			}
+		} catch (Exception e) {
+			logger.warn("Could not reconcile user stats snapshot: {}", e.getMessage());
+		}
+	}
+
+	public void recordCreated(boolean active) {
+		apply(stats -> stats.plus(active, 1));
+	}
+
+	public void recordDeleted(boolean active) {
+		apply(stats -> stats.plus(active, -1));
+	}
+
+	public void recordActiveChange(boolean wasActive, boolean active) {
+		if (wasActive != active) {
+			apply(stats -> stats.plus(wasActive, -1).plus(active, 1));
+		}
+	}
+
+	// Inside a transaction the change is applied only once it has committed
+	private void apply(UnaryOperator<Stats> change) {
+		if (!enabled) {
+			return;
+		}
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					current.updateAndGet(stats -> stats == null ? null : change.apply(stats));
+				}
+			});
+		} else {
+			current.updateAndGet(stats -> stats == null ? null : change.apply(stats));
+		}
+	}
+
+	/**
+	 * Immutable user counts, plus the time of the last reconciliation.
+	 */
+	public record Stats(long active, long inactive, Instant reconciledAt) {
+
+		Stats plus(boolean isActive, long delta) {
+			return isActive
+					? new Stats(active + delta, inactive, reconciledAt)
+					: new Stats(active, inactive + delta, reconciledAt);
+		}
+
+		boolean sameTotals(Stats other) {
+			return active == other.active && inactive == other.inactive;
+		}
+
+		public long total() {
+			return active + inactive;
+		}
+
+		/**
+		 * The reconcile time and both counts verbatim, so different totals never share
+		 * a fingerprint.
+		 */
+		public String fingerprint() {
+			return reconciledAt.toEpochMilli() + "-" + active + "-" + inactive;
+		}
+
+		public Duration staleness() {
+			return Duration.between(reconciledAt, Instant.now());
+		}
+	}
+}
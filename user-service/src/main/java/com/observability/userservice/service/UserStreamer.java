@@ -0,0 +1,100 @@
+package com.observability.userservice.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.observability.userservice.dto.UserDTO;
+import com.observability.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Streams every user in id order as NDJSON or Server-Sent Events. Users are read in keyset
+ * pages of {@value #PAGE_SIZE}, each in its own short read-only transaction, and the next
+ * page is only read once the previous one has been written. A slow client therefore blocks
+ * the writer instead of growing a buffer, and heap stays at one page. The connection goes
+ * back to the pool after each page; this relies on open-in-view being disabled, which
+ * would otherwise hold it for the whole stream. Each SSE event carries the user id as its
+ * id, so a client can resume with Last-Event-ID.
+ */
+@Component
+public class UserStreamer {
+
+	private static final Logger logger = LoggerFactory.getLogger(UserStreamer.class);
+
+	public static final int PAGE_SIZE = 500;
+
+	public enum Format {
+		NDJSON("application/x-ndjson"), SSE("text/event-stream");
+
+		private final String contentType;
+
+		Format(String contentType) {
+			this.contentType = contentType;
+		}
+
+		public String getContentType() {
+			return contentType;
+		}
+	}
+
+	private final UserRepository userRepository;
+	private final ObjectMapper objectMapper;
+	private final ObjectWriter rowWriter;
+	private final Counter streamedCounter;
+
+	public UserStreamer(UserRepository userRepository, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+		this.userRepository = userRepository;
+		this.objectMapper = objectMapper;
+		// Flushed once per page instead of once per user
+		this.rowWriter = objectMapper.writerFor(UserDTO.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		this.streamedCounter = Counter.builder("user.stream.rows")
+				.description("Users written by the streaming listing")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Writes every user with an id greater than afterId and returns the number written.
+	 */
+	public long stream(long afterId, Format format, OutputStream out) throws IOException {
+		JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+		// The servlet container owns the response stream
+		generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		long written = 0;
+		long position = afterId;
+		try {
+			while (true) {
+				List<UserDTO> page = userRepository.findDtoPageAfter(position, PageRequest.of(0, PAGE_SIZE));
+				for (UserDTO user : page) {
+					if (format == Format.SSE) {
+						generator.writeRaw("id: " + user.getId() + "\ndata: ");
+						rowWriter.writeValue(generator, user);
+						generator.writeRaw("\n\n");
+					} else {
+						rowWriter.writeValue(generator, user);
+						generator.writeRaw('\n');
+					}
+				}
+				generator.flush();
+				written += page.size();
+				streamedCounter.increment(page.size());
+				if (page.size() < PAGE_SIZE) {
+					break;
+				}
+				position = page.get(page.size() - 1).getId();
+			}
+		} finally {
+			logger.info("Streamed {} users as {}", written, format);
+		}
+		return written;
+	}
+}
@@ -0,0 +1,14 @@
+-- Users table as previously generated by Hibernate DDL auto, with named unique
+-- constraints. Existing databases are baselined at this version and skip it.
+CREATE TABLE IF NOT EXISTS users (
+    id            BIGSERIAL    PRIMARY KEY,
+    username      VARCHAR(255) NOT NULL,
+    email         VARCHAR(255) NOT NULL,
+    full_name     VARCHAR(255),
+    created_at    TIMESTAMP(6) NOT NULL,
+    last_login_at TIMESTAMP(6) NOT NULL,
+    active        BOOLEAN      NOT NULL,
+    login_count   INTEGER      NOT NULL,
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
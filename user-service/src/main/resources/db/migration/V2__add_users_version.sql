@@ -0,0 +1,26 @@
+-- A version for the whole users table, bumped by a statement-level trigger on every
+-- write, so the /api/users ETag and Last-Modified cost one row read. Every writing
+-- statement locks this single row until its transaction commits, so writes to users
+-- serialize on it. That includes the login flush, which runs one UPDATE per batch every
+-- flush interval; keep user writes to few statements and short transactions.
+CREATE TABLE IF NOT EXISTS users_version (
+    id         SMALLINT    PRIMARY KEY CHECK (id = 1),
+    version    BIGINT      NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL
+);
+
+INSERT INTO users_version (id, version, updated_at) VALUES (1, 0, now()) ON CONFLICT DO NOTHING;
+
+CREATE OR REPLACE FUNCTION bump_users_version() RETURNS trigger AS $$
+BEGIN
+    UPDATE users_version
+    SET version = version + 1, updated_at = GREATEST(updated_at, clock_timestamp())
+    WHERE id = 1;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS users_version_bump ON users;
+CREATE TRIGGER users_version_bump
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON users
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_users_version();
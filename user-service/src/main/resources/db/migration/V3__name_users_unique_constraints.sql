@@ -0,0 +1,27 @@
+-- Databases baselined from Hibernate DDL auto carry generated names for the username and
+-- email unique constraints. UserService identifies a duplicate by constraint name, so give
+-- them the names V1 uses. Fresh databases already have them and are left unchanged.
+DO $$
+DECLARE
+    col  TEXT;
+    name TEXT;
+    existing TEXT;
+BEGIN
+    FOREACH col IN ARRAY ARRAY['username', 'email'] LOOP
+        name := 'uk_users_' || col;
+        SELECT c.conname INTO existing
+        FROM pg_constraint c
+        JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = c.conkey[1]
+        WHERE c.conrelid = 'users'::regclass
+          AND c.contype = 'u'
+          AND cardinality(c.conkey) = 1
+          AND a.attname = col
+        LIMIT 1;
+
+        IF existing IS NULL THEN
+            EXECUTE format('ALTER TABLE users ADD CONSTRAINT %I UNIQUE (%I)', name, col);
+        ELSIF existing <> name THEN
+            EXECUTE format('ALTER TABLE users RENAME CONSTRAINT %I TO %I', existing, name);
+        END IF;
+    END LOOP;
+END $$;
@@ -0,0 +1,141 @@
+package com.observability.userservice.service;
+
+import com.observability.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserIdFilterTest {
+
+	// Ids in the users table. Adding here and then to the filter mirrors a commit
+	// followed by the after-commit callback.
+	private final Queue<Long> committed = new ConcurrentLinkedQueue<>();
+	private final UserRepository userRepository = mock(UserRepository.class);
+	private UserIdFilter filter;
+
+	@BeforeEach
+	void setUp() {
+		when(userRepository.count()).thenAnswer(invocation -> (long) committed.size());
+		when(userRepository.streamAllIds()).thenAnswer(invocation -> List.copyOf(committed).stream());
+		filter = new UserIdFilter(userRepository, mock(PlatformTransactionManager.class), true, 0.01,
+				Duration.ofMinutes(10), new SimpleMeterRegistry());
+	}
+
+	@Test
+	void bloomIsSizedForCapacityAndFalsePositiveRate() {
+		int capacity = 100_000;
+		UserIdFilter.Bloom bloom = new UserIdFilter.Bloom(capacity, 0.01);
+
+		// m = -n ln p / (ln 2)^2 rounded up to whole words, k = m / n ln 2
+		assertThat(bloom.bitCount).isBetween(958_506L, 958_506L + 63);
+		assertThat(bloom.bitCount % 64).isZero();
+		assertThat(bloom.hashCount).isEqualTo(7);
+
+		for (long id = 1; id <= capacity; id++) {
+			bloom.put(id);
+		}
+		for (long id = 1; id <= capacity; id++) {
+			assertThat(bloom.mightContain(id)).as("inserted id %d", id).isTrue();
+		}
+		int falsePositives = 0;
+		int probes = 200_000;
+		for (long id = 10_000_000; id < 10_000_000 + probes; id++) {
+			if (bloom.mightContain(id)) {
+				falsePositives++;
+			}
+		}
+		assertThat((double) falsePositives / probes).isLessThan(0.0125);
+	}
+
+	@Test
+	void idsAreReportedAbsentOnlyAfterABuild() {
+		assertThat(filter.mightExist(7)).isTrue();
+
+		commit(1);
+		commit(10);
+		filter.buildAtStartup();
+
+		assertThat(filter.mightExist(1)).isTrue();
+		assertThat(filter.mightExist(10)).isTrue();
+		assertThat(filter.mightExist(7)).isFalse();
+	}
+
+	@Test
+	void idsAboveTheLastBuildGoToTheDatabase() {
+		commit(1);
+		commit(10);
+		filter.buildAtStartup();
+
+		// Created on another instance, so this filter never saw an add for it
+		committed.add(11L);
+
+		assertThat(filter.mightExist(11)).isTrue();
+		assertThat(filter.mightExist(7)).isFalse();
+
+		filter.buildAtStartup();
+		assertThat(filter.mightExist(11)).isTrue();
+		assertThat(filter.mightExist(12)).isTrue();
+	}
+
+	@Test
+	void idCommittedAfterTheRebuildScanIsInTheRebuiltFilter() {
+		commit(1);
+		filter.buildAtStartup();
+
+		// The rebuild's scan sees the table as it was before user 2 committed
+		when(userRepository.streamAllIds()).thenAnswer(invocation -> {
+			List<Long> snapshot = List.copyOf(committed);
+			commit(2);
+			return snapshot.stream();
+		});
+		filter.buildAtStartup();
+
+		assertThat(filter.mightExist(1)).isTrue();
+		assertThat(filter.mightExist(2)).isTrue();
+	}
+
+	@Test
+	void idsCommittedConcurrentlyWithRebuildsAreNeverLost() throws InterruptedException {
+		commit(0);
+		filter.buildAtStartup();
+
+		AtomicBoolean stop = new AtomicBoolean();
+		AtomicLong nextId = new AtomicLong(1);
+		Thread writer = new Thread(() -> {
+			while (!stop.get() && nextId.get() <= 100_000) {
+				commit(nextId.getAndIncrement());
+				Thread.yield();
+			}
+		});
+		writer.start();
+		try {
+			for (int i = 0; i < 200; i++) {
+				filter.buildAtStartup();
+			}
+		} finally {
+			stop.set(true);
+			writer.join();
+		}
+
+		for (long id : committed) {
+			assertThat(filter.mightExist(id)).as("committed id %d", id).isTrue();
+		}
+	}
+
+	private void commit(long id) {
+		committed.add(id);
+		filter.add(id);
+	}
+}